@@ -0,0 +1,137 @@
+package com.github.repodashboard.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.GitHubRepository;
+import com.github.repodashboard.model.Repository;
+import com.github.repodashboard.service.GitHubRepositoryReader;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic GitHub data for the benchmarks, shaped like real {@code /user/repos}
+ * responses: a skewed language distribution, a long tail of star counts, UTC timestamps.
+ */
+final class BenchmarkData {
+
+    static final String[] LANGUAGES = {
+            "JavaScript", "TypeScript", "Python", "Java", "Go", "Rust", "C++", "C#", "Ruby", "PHP",
+            "Kotlin", "Swift", "Shell", "HTML", "CSS", "Scala", "Dart", "Elixir", "Haskell", "Lua"
+    };
+
+    private static final DateTimeFormatter GITHUB_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2015, 1, 1, 0, 0);
+
+    private BenchmarkData() {}
+
+    static List<GitHubRepository> repositories(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<GitHubRepository> repositories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GitHubRepository repository = new GitHubRepository();
+            repository.setId(100_000L + i);
+            repository.setName("repo-" + i);
+            repository.setFullName("octo-org/repo-" + i);
+            repository.setDescription(i % 5 == 0 ? null : "Synthetic repository number " + i + " used for benchmarking");
+            repository.setHtmlUrl("https://github.com/octo-org/repo-" + i);
+            repository.setStargazersCount((int) Math.min(100_000, Math.abs(random.nextGaussian()) * Math.pow(10, random.nextInt(5))));
+            repository.setForksCount(random.nextInt(500));
+            // Squaring skews the distribution towards the first few languages, as on GitHub
+            double skew = random.nextDouble();
+            repository.setLanguage(i % 9 == 0 ? null : new String(LANGUAGES[(int) (skew * skew * LANGUAGES.length)]));
+            LocalDateTime createdAt = EPOCH.plusMinutes(random.nextInt(4_000_000));
+            repository.setCreatedAt(createdAt.format(GITHUB_TIMESTAMP));
+            repository.setUpdatedAt(createdAt.plusMinutes(random.nextInt(500_000)).format(GITHUB_TIMESTAMP));
+            repository.setIsPrivate(i % 4 == 0);
+            repository.setFork(i % 7 == 0);
+            repositories.add(repository);
+        }
+        return repositories;
+    }
+
+    /**
+     * Converted rows, as the sync pipeline publishes them.
+     */
+    static List<Repository> rows(int count) {
+        GitHubRepositoryReader reader = new GitHubRepositoryReader(new ObjectMapper(), 4096);
+        return repositories(count).stream().map(reader::convert).toList();
+    }
+
+    /**
+     * A {@code /user/repos} response body. Besides the fields we keep, every element carries the
+     * owner object, permissions, licence and URL fields GitHub sends, so parsers pay for skipping
+     * them as they would in production.
+     */
+    static byte[] json(int count) {
+        List<Map<String, Object>> elements = new ArrayList<>(count);
+        for (GitHubRepository repository : repositories(count)) {
+            Map<String, Object> element = new LinkedHashMap<>();
+            element.put("id", repository.getId());
+            element.put("node_id", "R_kgDO" + repository.getId());
+            element.put("name", repository.getName());
+            element.put("full_name", repository.getFullName());
+            element.put("private", repository.getIsPrivate());
+            element.put("owner", owner());
+            element.put("html_url", repository.getHtmlUrl());
+            element.put("description", repository.getDescription());
+            element.put("fork", repository.getFork());
+            element.put("url", "https://api.github.com/repos/" + repository.getFullName());
+            for (String link : new String[]{"forks", "keys", "collaborators", "teams", "hooks", "issue_events",
+                    "events", "assignees", "branches", "tags", "blobs", "git_tags", "git_refs", "trees", "statuses",
+                    "languages", "stargazers", "contributors", "subscribers", "subscription", "commits", "git_commits",
+                    "comments", "issue_comment", "contents", "compare", "merges", "archive", "downloads", "issues",
+                    "pulls", "milestones", "notifications", "labels", "releases", "deployments"}) {
+                element.put(link + "_url", "https://api.github.com/repos/" + repository.getFullName() + "/" + link);
+            }
+            element.put("created_at", repository.getCreatedAt());
+            element.put("updated_at", repository.getUpdatedAt());
+            element.put("pushed_at", repository.getUpdatedAt());
+            element.put("homepage", null);
+            element.put("size", 1024);
+            element.put("stargazers_count", repository.getStargazersCount());
+            element.put("watchers_count", repository.getStargazersCount());
+            element.put("language", repository.getLanguage());
+            element.put("has_issues", true);
+            element.put("has_projects", true);
+            element.put("has_wiki", false);
+            element.put("forks_count", repository.getForksCount());
+            element.put("archived", false);
+            element.put("open_issues_count", 3);
+            element.put("license", Map.of("key", "mit", "name", "MIT License", "spdx_id", "MIT"));
+            element.put("topics", List.of("dashboard", "github", "benchmark"));
+            element.put("visibility", Boolean.TRUE.equals(repository.getIsPrivate()) ? "private" : "public");
+            element.put("default_branch", "main");
+            element.put("permissions", Map.of("admin", true, "maintain", true, "push", true, "triage", true, "pull", true));
+            elements.add(element);
+        }
+        try {
+            return new ObjectMapper().writeValueAsBytes(elements);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> owner() {
+        Map<String, Object> owner = new LinkedHashMap<>();
+        owner.put("login", "octo-org");
+        owner.put("id", 9919);
+        owner.put("avatar_url", "https://avatars.githubusercontent.com/u/9919?v=4");
+        owner.put("url", "https://api.github.com/users/octo-org");
+        owner.put("html_url", "https://github.com/octo-org");
+        owner.put("repos_url", "https://api.github.com/users/octo-org/repos");
+        owner.put("type", "Organization");
+        owner.put("site_admin", false);
+        return owner;
+    }
+
+    static String[] timestamps(int count) {
+        return repositories(count).stream().map(GitHubRepository::getUpdatedAt).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.repodashboard.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.GitHubRepository;
+import com.github.repodashboard.model.Repository;
+import com.github.repodashboard.service.GitHubRepositoryReader;
+import com.github.repodashboard.service.GitHubTimestamps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row conversion before and after the fixed-format timestamp parser and the language dictionary.
+ * The {@code legacy*} benchmarks reproduce the previous {@code GitHubService.convertToRepository}
+ * so both variants are measured in the same run; run with the gc profiler to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+    @Param({"1000"})
+    public int repositories;
+
+    private List<GitHubRepository> payload;
+    private String[] timestamps;
+    private GitHubRepositoryReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = BenchmarkData.repositories(repositories);
+        timestamps = BenchmarkData.timestamps(repositories);
+        reader = new GitHubRepositoryReader(new ObjectMapper(), 4096);
+    }
+
+    @Benchmark
+    public void legacyConvert(Blackhole blackhole) {
+        for (GitHubRepository repository : payload) {
+            blackhole.consume(legacyConvertToRepository(repository));
+        }
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (GitHubRepository repository : payload) {
+            blackhole.consume(reader.convert(repository));
+        }
+    }
+
+    @Benchmark
+    public void legacyTimestamps(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(LocalDateTime.parse(timestamp.replace("Z", ""), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+    }
+
+    @Benchmark
+    public void timestamps(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(GitHubTimestamps.parseUtc(timestamp));
+        }
+    }
+
+    private static Repository legacyConvertToRepository(GitHubRepository githubRepo) {
+        Repository repo = new Repository();
+        repo.setId(githubRepo.getId());
+        repo.setName(githubRepo.getName());
+        repo.setFullName(githubRepo.getFullName());
+        repo.setDescription(githubRepo.getDescription());
+        repo.setHtmlUrl(githubRepo.getHtmlUrl());
+        repo.setStargazersCount(githubRepo.getStargazersCount() != null ? githubRepo.getStargazersCount() : 0);
+        repo.setForksCount(githubRepo.getForksCount() != null ? githubRepo.getForksCount() : 0);
+        // The payload's language strings are distinct instances per row, as they are after binding
+        repo.setLanguage(githubRepo.getLanguage() != null ? githubRepo.getLanguage() : "Unknown");
+        repo.setIsPrivate(githubRepo.getIsPrivate() != null ? githubRepo.getIsPrivate() : false);
+        repo.setIsFork(githubRepo.getFork() != null ? githubRepo.getFork() : false);
+        repo.setCreatedAt(LocalDateTime.parse(githubRepo.getCreatedAt().replace("Z", ""), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        repo.setUpdatedAt(LocalDateTime.parse(githubRepo.getUpdatedAt().replace("Z", ""), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        return repo;
+    }
+}
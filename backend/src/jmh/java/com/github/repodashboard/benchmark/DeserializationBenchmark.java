@@ -0,0 +1,64 @@
+package com.github.repodashboard.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.GitHubRepository;
+import com.github.repodashboard.service.GitHubRepositoryReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a repository list response into rows: binding the whole body to
+ * {@code GitHubRepository[]} and converting it, as before, against the streaming reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int repositories;
+
+    private byte[] body;
+    private ObjectMapper objectMapper;
+    private GitHubRepositoryReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        body = BenchmarkData.json(repositories);
+        // Same setting Spring Boot applies to its ObjectMapper
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        reader = new GitHubRepositoryReader(objectMapper, 4096);
+    }
+
+    @Benchmark
+    public void bindArray(Blackhole blackhole) throws IOException {
+        GitHubRepository[] page = objectMapper.readValue(body, GitHubRepository[].class);
+        for (GitHubRepository repository : page) {
+            blackhole.consume(reader.convert(repository));
+        }
+    }
+
+    @Benchmark
+    public int streamingReader(Blackhole blackhole) throws IOException {
+        return reader.read(new ByteArrayInputStream(body), blackhole::consume);
+    }
+}
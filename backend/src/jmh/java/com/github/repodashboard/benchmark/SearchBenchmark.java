@@ -0,0 +1,104 @@
+package com.github.repodashboard.benchmark;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.model.Repository;
+import com.github.repodashboard.service.RepositoryChangeEvent;
+import com.github.repodashboard.service.RepositoryReconciler;
+import com.github.repodashboard.service.RepositorySearchIndex;
+import com.github.repodashboard.service.RepositorySnapshotStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substring search over repository names and descriptions: the
+ * {@code RepositoryRepository.findBySearchTerm} query against an in-memory H2 table, as issued by
+ * Hibernate, against the n-gram {@link RepositorySearchIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    // The SQL Hibernate generates for the JPQL query on RepositoryRepository.findBySearchTerm
+    private static final String FIND_BY_SEARCH_TERM_SQL = "SELECT * FROM repositories WHERE " +
+            "LOWER(name) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(description) LIKE LOWER(CONCAT('%', ?, '%'))";
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE repositories (" +
+            "id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, full_name VARCHAR(255) NOT NULL, " +
+            "description VARCHAR(1000), html_url VARCHAR(255) NOT NULL, stargazers_count INT NOT NULL, " +
+            "forks_count INT NOT NULL, language VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL, " +
+            "updated_at TIMESTAMP NOT NULL, is_private BOOLEAN NOT NULL, is_fork BOOLEAN NOT NULL, source VARCHAR(255), " +
+            "open_issues_count INT, last_commit_sha VARCHAR(255), last_commit_at TIMESTAMP, enriched_at TIMESTAMP)";
+
+    // The reconciler rewrites the enriched details of every row it writes
+    private static final String CREATE_TOPICS_TABLE_SQL =
+            "CREATE TABLE repository_topics (repository_id BIGINT NOT NULL, topic VARCHAR(255))";
+
+    private static final String CREATE_LANGUAGES_TABLE_SQL = "CREATE TABLE repository_languages (" +
+            "repository_id BIGINT NOT NULL, language VARCHAR(255) NOT NULL, bytes BIGINT, PRIMARY KEY (repository_id, language))";
+
+    @Param({"1000", "10000"})
+    public int repositories;
+
+    @Param({"repo-12", "number 7"})
+    public String term;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private RepositorySearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Repository> rows = BenchmarkData.rows(repositories);
+
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS repository_topics");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS repository_languages");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS repositories");
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.execute(CREATE_TOPICS_TABLE_SQL);
+        jdbcTemplate.execute(CREATE_LANGUAGES_TABLE_SQL);
+        new RepositoryReconciler(jdbcTemplate, 500, 1000).reconcile(rows, Set.of());
+
+        searchIndex = new RepositorySearchIndex();
+        RepositorySnapshotStore snapshotStore = new RepositorySnapshotStore(
+                event -> searchIndex.onRepositoryChange((RepositoryChangeEvent) event));
+        snapshotStore.publish(rows, new RepositoryChangeSet(rows, List.of(), List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int h2FindBySearchTerm() {
+        return jdbcTemplate.query(FIND_BY_SEARCH_TERM_SQL, (resultSet, rowNum) -> resultSet.getLong("id"), term, term).size();
+    }
+
+    @Benchmark
+    public List<Long> searchIndex() {
+        return searchIndex.search(term, repositories);
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.repodashboard.benchmark;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.RepositoryStats;
+import com.github.repodashboard.model.Repository;
+import com.github.repodashboard.service.RepositoryChangeEvent;
+import com.github.repodashboard.service.RepositorySnapshot;
+import com.github.repodashboard.service.RepositorySnapshotStore;
+import com.github.repodashboard.service.RepositoryStatsEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statistics behind {@code GET /api/repos/stats}: the stream scans the endpoint originally ran
+ * on every request, the incremental engine (full rebuild and a one-row update), and the column
+ * aggregation used for filtered stats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+
+    @Param({"1000", "10000"})
+    public int repositories;
+
+    private List<Repository> rows;
+    private RepositorySnapshot snapshot;
+    private RepositoryChangeEvent rebuildEvent;
+    private RepositoryChangeEvent updateEvent;
+    private RepositoryChangeEvent revertEvent;
+    private RepositoryStatsEngine statsEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = BenchmarkData.rows(repositories);
+        List<RepositoryChangeEvent> events = new ArrayList<>();
+        RepositorySnapshotStore snapshotStore = new RepositorySnapshotStore(event -> events.add((RepositoryChangeEvent) event));
+
+        snapshot = snapshotStore.publish(rows, new RepositoryChangeSet(rows, List.of(), List.of()));
+        Repository original = rows.get(0);
+        Repository starred = copyWithStars(original, original.getStargazersCount() + 1);
+        List<Repository> updatedRows = new ArrayList<>(rows);
+        updatedRows.set(0, starred);
+        snapshotStore.publish(updatedRows, new RepositoryChangeSet(List.of(), List.of(starred), List.of()));
+        snapshotStore.publish(rows, new RepositoryChangeSet(List.of(), List.of(original), List.of()));
+        rebuildEvent = events.get(0);
+        updateEvent = events.get(1);
+        revertEvent = events.get(2);
+
+        statsEngine = new RepositoryStatsEngine();
+        statsEngine.onRepositoryChange(rebuildEvent);
+    }
+
+    @Benchmark
+    public Map<String, Object> legacyStreamScan() {
+        int totalRepos = rows.size();
+        int publicRepos = (int) rows.stream().filter(repo -> !repo.getIsPrivate()).count();
+        int privateRepos = (int) rows.stream().filter(Repository::getIsPrivate).count();
+        int forkedRepos = (int) rows.stream().filter(Repository::getIsFork).count();
+        int totalStars = rows.stream().mapToInt(Repository::getStargazersCount).sum();
+        int totalForks = rows.stream().mapToInt(Repository::getForksCount).sum();
+        return Map.of(
+            "totalRepositories", totalRepos,
+            "publicRepositories", publicRepos,
+            "privateRepositories", privateRepos,
+            "forkedRepositories", forkedRepos,
+            "totalStars", totalStars,
+            "totalForks", totalForks
+        );
+    }
+
+    @Benchmark
+    public RepositoryStats engineRebuild() {
+        RepositoryStatsEngine engine = new RepositoryStatsEngine();
+        engine.onRepositoryChange(rebuildEvent);
+        return engine.current();
+    }
+
+    @Benchmark
+    public RepositoryStats engineIncrementalUpdate() {
+        // Apply and revert one star so the engine's state is the same at every invocation
+        statsEngine.onRepositoryChange(updateEvent);
+        statsEngine.onRepositoryChange(revertEvent);
+        return statsEngine.current();
+    }
+
+    @Benchmark
+    public RepositoryStats columnsAggregateAll() {
+        BitSet all = snapshot.getColumns().select(null, null, null, null);
+        return snapshot.getColumns().aggregate(all);
+    }
+
+    @Benchmark
+    public RepositoryStats columnsAggregateFiltered() {
+        BitSet selection = snapshot.getColumns().select("Java", null, false, null);
+        return snapshot.getColumns().aggregate(selection);
+    }
+
+    private static Repository copyWithStars(Repository source, int stars) {
+        Repository copy = new Repository(source.getId(), source.getName(), source.getFullName(), source.getDescription(),
+                source.getHtmlUrl(), stars, source.getForksCount(), source.getLanguage(), source.getCreatedAt(),
+                source.getUpdatedAt(), source.getIsPrivate(), source.getIsFork());
+        copy.setSource(source.getSource());
+        return copy;
+    }
+}
@@ -0,0 +1,304 @@
+package com.github.repodashboard.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the GitHub REST API's repository list endpoints ({@code /user/repos},
+ * {@code /users/{owner}/repos}, {@code /orgs/{owner}/repos}).
+ *
+ * <p>It serves a deterministic set of repositories with the same response shape, {@code Link}
+ * pagination, per-page {@code ETag}s and {@code X-RateLimit-*} headers as GitHub: conditional
+ * requests answer 304 without spending the rate limit, and an exhausted limit answers 403 until the
+ * window resets. Every response is delayed by the configured latency, and {@link #churn(int)}
+ * updates random repositories so that syncs have real changes to apply.
+ */
+final class FakeGitHubServer implements AutoCloseable {
+
+    private static final Pattern REPOSITORY_LIST = Pattern.compile("/(user|users/[^/]+|orgs/[^/]+)/repos");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
+    private static final String[] LANGUAGES = {
+            "JavaScript", "TypeScript", "Python", "Java", "Go", "Rust", "C++", "C#", "Ruby", "PHP",
+            "Kotlin", "Swift", "Shell", "HTML", "CSS", "Scala", "Dart", "Elixir", "Haskell", "Lua"
+    };
+    private static final int DEFAULT_PAGE_SIZE = 30;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int repositoryCount;
+    private final long latencyMs;
+    private final int rateLimit;
+    private final long rateLimitWindowSeconds;
+
+    // Mutable repository state; guarded by this
+    private final int[] stars;
+    private final long[] updatedAt;
+    private final long[] versions;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    private final AtomicInteger remaining;
+    private volatile long resetAt;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    FakeGitHubServer(int port, int repositoryCount, long latencyMs, int rateLimit, long rateLimitWindowSeconds) throws IOException {
+        this.repositoryCount = repositoryCount;
+        this.latencyMs = latencyMs;
+        this.rateLimit = rateLimit;
+        this.rateLimitWindowSeconds = rateLimitWindowSeconds;
+        this.remaining = new AtomicInteger(rateLimit);
+        this.resetAt = Instant.now().getEpochSecond() + rateLimitWindowSeconds;
+
+        stars = new int[repositoryCount];
+        updatedAt = new long[repositoryCount];
+        versions = new long[repositoryCount];
+        long now = Instant.now().getEpochSecond();
+        for (int i = 0; i < repositoryCount; i++) {
+            stars[i] = (int) Math.min(50_000, Math.abs(random.nextGaussian()) * Math.pow(10, random.nextInt(5)));
+            updatedAt[i] = now - random.nextInt(3 * 365 * 24 * 3600);
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port();
+    }
+
+    int repositoryCount() {
+        return repositoryCount;
+    }
+
+    /**
+     * Updates the star count and push time of {@code count} random repositories.
+     */
+    synchronized void churn(int count) {
+        long now = Instant.now().getEpochSecond();
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt(repositoryCount);
+            stars[index] += 1 + random.nextInt(5);
+            updatedAt[index] = now;
+            versions[index]++;
+        }
+    }
+
+    /**
+     * The repository at {@code index} as it appears in list responses and webhook payloads.
+     */
+    synchronized String repositoryJson(int index) {
+        StringBuilder json = new StringBuilder(2048);
+        appendRepository(json, index);
+        return json.toString();
+    }
+
+    String summary() {
+        return requests.get() + " requests, " + notModified.get() + " not modified, " + rateLimited.get() + " rate limited";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            sleep(latencyMs);
+
+            URI uri = exchange.getRequestURI();
+            if (!"GET".equals(exchange.getRequestMethod()) || !REPOSITORY_LIST.matcher(uri.getPath()).matches()) {
+                respond(exchange, 404, "{\"message\":\"Not Found\"}");
+                return;
+            }
+
+            int pageSize = Math.min(MAX_PAGE_SIZE, Math.max(1, queryInt(uri, "per_page", DEFAULT_PAGE_SIZE)));
+            int page = Math.max(1, queryInt(uri, "page", 1));
+            int lastPage = Math.max(1, (repositoryCount + pageSize - 1) / pageSize);
+            int from = Math.min(repositoryCount, (page - 1) * pageSize);
+            int to = Math.min(repositoryCount, from + pageSize);
+
+            String etag;
+            synchronized (this) {
+                long pageVersion = 0;
+                for (int i = from; i < to; i++) {
+                    pageVersion = pageVersion * 31 + versions[i];
+                }
+                etag = "\"p" + page + "-" + pageSize + "-" + Long.toHexString(pageVersion) + "\"";
+            }
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Link", linkHeader(uri, page, lastPage, pageSize));
+
+            // As on GitHub, a 304 for a conditional request does not count against the rate limit
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                setRateLimitHeaders(exchange, remaining.get());
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            int left = consumeRateLimit();
+            setRateLimitHeaders(exchange, Math.max(0, left));
+            if (left < 0) {
+                rateLimited.incrementAndGet();
+                respond(exchange, 403, "{\"message\":\"API rate limit exceeded\"}");
+                return;
+            }
+
+            StringBuilder body = new StringBuilder((to - from) * 2048 + 2).append('[');
+            synchronized (this) {
+                for (int i = from; i < to; i++) {
+                    if (i > from) {
+                        body.append(',');
+                    }
+                    appendRepository(body, i);
+                }
+            }
+            respond(exchange, 200, body.append(']').toString());
+        }
+    }
+
+    private int consumeRateLimit() {
+        long now = Instant.now().getEpochSecond();
+        if (now >= resetAt) {
+            synchronized (this) {
+                if (now >= resetAt) {
+                    remaining.set(rateLimit);
+                    resetAt = now + rateLimitWindowSeconds;
+                }
+            }
+        }
+        return remaining.decrementAndGet();
+    }
+
+    private void setRateLimitHeaders(HttpExchange exchange, int left) {
+        exchange.getResponseHeaders().set("X-RateLimit-Limit", String.valueOf(rateLimit));
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", String.valueOf(left));
+        exchange.getResponseHeaders().set("X-RateLimit-Used", String.valueOf(rateLimit - left));
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", String.valueOf(resetAt));
+        exchange.getResponseHeaders().set("X-RateLimit-Resource", "core");
+    }
+
+    private String linkHeader(URI uri, int page, int lastPage, int pageSize) {
+        String base = baseUrl() + uri.getPath() + "?per_page=" + pageSize + "&page=";
+        StringBuilder link = new StringBuilder();
+        if (page < lastPage) {
+            link.append('<').append(base).append(page + 1).append(">; rel=\"next\", ");
+            link.append('<').append(base).append(lastPage).append(">; rel=\"last\"");
+        }
+        if (page > 1) {
+            if (!link.isEmpty()) {
+                link.append(", ");
+            }
+            link.append('<').append(base).append(page - 1).append(">; rel=\"prev\", ");
+            link.append('<').append(base).append(1).append(">; rel=\"first\"");
+        }
+        return link.toString();
+    }
+
+    private void appendRepository(StringBuilder json, int index) {
+        long id = 500_000L + index;
+        String name = "repo-" + index;
+        String fullName = "octo-org/" + name;
+        String language = index % 9 == 0 ? null : LANGUAGES[(index * 7 + index / 13) % LANGUAGES.length];
+        long createdAt = updatedAt[index] - (index % 1000) * 86_400L;
+        json.append("{\"id\":").append(id)
+                .append(",\"node_id\":\"R_kgDO").append(id).append('"')
+                .append(",\"name\":\"").append(name).append('"')
+                .append(",\"full_name\":\"").append(fullName).append('"')
+                .append(",\"private\":").append(index % 4 == 0)
+                .append(",\"owner\":{\"login\":\"octo-org\",\"id\":9919,\"type\":\"Organization\",\"site_admin\":false,")
+                .append("\"avatar_url\":\"https://avatars.githubusercontent.com/u/9919?v=4\",")
+                .append("\"html_url\":\"https://github.com/octo-org\"}")
+                .append(",\"html_url\":\"https://github.com/").append(fullName).append('"')
+                .append(",\"description\":");
+        if (index % 5 == 0) {
+            json.append("null");
+        } else {
+            json.append("\"Load test repository number ").append(index).append(" for the dashboard\"");
+        }
+        json.append(",\"fork\":").append(index % 7 == 0)
+                .append(",\"url\":\"https://api.github.com/repos/").append(fullName).append('"');
+        for (String link : new String[]{"forks", "events", "branches", "tags", "languages", "stargazers",
+                "contributors", "commits", "contents", "issues", "pulls", "releases"}) {
+            json.append(",\"").append(link).append("_url\":\"https://api.github.com/repos/")
+                    .append(fullName).append('/').append(link).append('"');
+        }
+        json.append(",\"created_at\":\"").append(TIMESTAMP.format(Instant.ofEpochSecond(createdAt))).append('"')
+                .append(",\"updated_at\":\"").append(TIMESTAMP.format(Instant.ofEpochSecond(updatedAt[index]))).append('"')
+                .append(",\"pushed_at\":\"").append(TIMESTAMP.format(Instant.ofEpochSecond(updatedAt[index]))).append('"')
+                .append(",\"homepage\":null,\"size\":").append(100 + index % 5000)
+                .append(",\"stargazers_count\":").append(stars[index])
+                .append(",\"watchers_count\":").append(stars[index])
+                .append(",\"language\":").append(language == null ? "null" : "\"" + language + "\"")
+                .append(",\"has_issues\":true,\"has_wiki\":false,\"forks_count\":").append(index % 300)
+                .append(",\"archived\":false,\"open_issues_count\":").append(index % 17)
+                .append(",\"license\":{\"key\":\"mit\",\"name\":\"MIT License\",\"spdx_id\":\"MIT\"}")
+                .append(",\"topics\":[\"dashboard\",\"load-test\"],\"visibility\":\"")
+                .append(index % 4 == 0 ? "private" : "public").append('"')
+                .append(",\"default_branch\":\"main\"")
+                .append(",\"permissions\":{\"admin\":true,\"maintain\":true,\"push\":true,\"triage\":true,\"pull\":true}}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static int queryInt(URI uri, String name, int defaultValue) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+                try {
+                    return Integer.parseInt(parameter.substring(separator + 1));
+                } catch (NumberFormatException e) {
+                    return defaultValue;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.repodashboard.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-model load generator for the dashboard API: each phase runs a fixed number of virtual
+ * users, each sending one request at a time from a weighted scenario mix, and reports per-scenario
+ * throughput and latency percentiles.
+ */
+final class LoadDriver {
+
+    record Phase(String name, Duration duration, int users) {}
+
+    private record Scenario(String name, int weight) {}
+
+    private static final String[] SEARCH_TERMS = {"repo-1", "repo-42", "number 7", "dashboard", "load", "repo-99", "xyz"};
+    private static final String[] LANGUAGES = {"JavaScript", "TypeScript", "Java", "Python", "Go", "Rust"};
+    private static final String[] SORTS = {"stars", "forks", "updatedAt", "name"};
+
+    private final HttpClient client;
+    private final List<String> baseUrls;
+    private final FakeGitHubServer github;
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private final int totalWeight;
+
+    LoadDriver(List<String> baseUrls, FakeGitHubServer github, Map<String, Integer> mix) {
+        this.baseUrls = List.copyOf(baseUrls);
+        this.github = github;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        mix.forEach((name, weight) -> {
+            if (weight > 0) {
+                scenarios.add(new Scenario(name, weight));
+            }
+        });
+        this.totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The scenario mix has no positive weights");
+        }
+    }
+
+    /**
+     * Default scenario weights: mostly reads, as the dashboard issues them, plus webhook deliveries.
+     */
+    static Map<String, Integer> defaultMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("repos", 25);
+        mix.put("repos-page", 20);
+        mix.put("search", 15);
+        mix.put("filter", 10);
+        mix.put("stats", 15);
+        mix.put("languages", 10);
+        mix.put("webhook-repository", 4);
+        mix.put("webhook-push", 1);
+        return mix;
+    }
+
+    void run(List<Phase> phases) throws InterruptedException {
+        for (Phase phase : phases) {
+            Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+            scenarios.forEach(scenario -> recorders.put(scenario.name(), new LatencyRecorder()));
+
+            long started = System.nanoTime();
+            long deadline = started + phase.duration().toNanos();
+            try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int user = 0; user < phase.users(); user++) {
+                    users.submit(() -> runUser(deadline, recorders));
+                }
+                users.shutdown();
+                users.awaitTermination(phase.duration().toMillis() + 60_000, TimeUnit.MILLISECONDS);
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            printReport(phase, seconds, recorders);
+        }
+    }
+
+    /**
+     * Issues one request and returns its status code, or -1 when it failed without a response.
+     */
+    int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl() + path))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    HttpRequest post(String baseUrl, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(120))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    /**
+     * One of the backends, picked at random per request as a load balancer would.
+     */
+    private String baseUrl() {
+        return baseUrls.size() == 1 ? baseUrls.get(0) : baseUrls.get(ThreadLocalRandom.current().nextInt(baseUrls.size()));
+    }
+
+    private void runUser(long deadline, Map<String, LatencyRecorder> recorders) {
+        SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            Scenario scenario = pick(random);
+            HttpRequest request = request(scenario.name(), random);
+            long start = System.nanoTime();
+            int status = send(request);
+            long elapsed = System.nanoTime() - start;
+            recorders.get(scenario.name()).record(elapsed, status >= 200 && status < 400);
+        }
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private HttpRequest request(String scenario, SplittableRandom random) {
+        return switch (scenario) {
+            case "repos" -> get("/api/repos");
+            case "repos-page" -> get("/api/repos?sort=" + SORTS[random.nextInt(SORTS.length)] + "&limit=50");
+            case "search" -> get("/api/repos?search=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)].replace(" ", "%20"));
+            case "filter" -> get("/api/repos?language=" + LANGUAGES[random.nextInt(LANGUAGES.length)]
+                    + "&private=false&sort=stars&limit=20");
+            case "stats" -> get("/api/repos/stats");
+            case "languages" -> get("/api/repos/languages");
+            case "webhook-repository" -> webhook("repository", "{\"action\":\"edited\",\"repository\":"
+                    + github.repositoryJson(random.nextInt(github.repositoryCount())) + "}");
+            case "webhook-push" -> webhook("push", "{\"ref\":\"refs/heads/main\",\"repository\":{\"id\":"
+                    + (500_000 + random.nextInt(github.repositoryCount())) + "}}");
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+    }
+
+    private HttpRequest webhook(String event, String payload) {
+        return HttpRequest.newBuilder(URI.create(baseUrl() + "/webhook/github"))
+                .header("Content-Type", "application/json")
+                .header("X-GitHub-Event", event)
+                .header("X-GitHub-Delivery", UUID.randomUUID().toString())
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+    }
+
+    private static void printReport(Phase phase, double seconds, Map<String, LatencyRecorder> recorders) {
+        System.out.printf("%nPhase '%s': %d users for %.1fs%n", phase.name(), phase.users(), seconds);
+        System.out.printf("%-20s %9s %7s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    printRow(entry.getKey(), entry.getValue(), seconds);
+                    total.addAll(entry.getValue());
+                });
+        printRow("total", total, seconds);
+    }
+
+    private static void printRow(String name, LatencyRecorder recorder, double seconds) {
+        long[] latencies = recorder.sorted();
+        System.out.printf("%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, latencies.length, recorder.errors(), latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    /**
+     * Every latency sample of one scenario, in nanoseconds.
+     */
+    private static final class LatencyRecorder {
+
+        private long[] samples = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void record(long nanos, boolean successful) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            if (!successful) {
+                errors++;
+            }
+        }
+
+        synchronized void addAll(LatencyRecorder other) {
+            long[] otherSamples = other.sorted();
+            for (long sample : otherSamples) {
+                record(sample, true);
+            }
+            errors += other.errors();
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.repodashboard.loadtest;
+
+import com.github.repodashboard.RepoDashboardApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the dashboard against {@link FakeGitHubServer} and drives it with {@link LoadDriver}, entirely
+ * on the local machine.
+ *
+ * <pre>
+ * mvn -Ploadtest compile exec:java -Dloadtest.args="--repos=10000 --latency-ms=80 --phases=warmup:10:8,sustained:60:128"
+ * </pre>
+ *
+ * Options ({@code --name=value}):
+ * <ul>
+ *   <li>{@code repos} repositories served by the fake GitHub (2000)</li>
+ *   <li>{@code latency-ms} delay added to every fake GitHub response (50)</li>
+ *   <li>{@code rate-limit} / {@code rate-limit-window} requests allowed per window in seconds (5000 / 3600)</li>
+ *   <li>{@code churn} / {@code churn-interval} repositories updated every interval in seconds (20 / 30)</li>
+ *   <li>{@code phases} comma-separated {@code name:seconds:users} (warmup:15:8,ramp:30:32,sustained:60:64)</li>
+ *   <li>{@code mix} comma-separated {@code scenario:weight}, overriding the default weights</li>
+ *   <li>{@code replicas} backends started as a cluster sharing one file-based H2 database (1); requests
+ *   are spread over them like a load balancer would</li>
+ *   <li>{@code target} drive already running backends, comma-separated, instead of starting them</li>
+ *   <li>{@code github-only} only run the fake GitHub, on {@code github-port}, until interrupted</li>
+ * </ul>
+ * Any other {@code --property=value} is passed to the embedded application.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int repositories = intOption(options, "repos", 2000);
+
+        try (FakeGitHubServer github = new FakeGitHubServer(
+                intOption(options, "github-port", 0),
+                repositories,
+                intOption(options, "latency-ms", 50),
+                intOption(options, "rate-limit", 5000),
+                intOption(options, "rate-limit-window", 3600))) {
+
+            System.out.println("Fake GitHub API serving " + repositories + " repositories at " + github.baseUrl());
+            ScheduledExecutorService churn = Executors.newSingleThreadScheduledExecutor();
+            int churnInterval = intOption(options, "churn-interval", 30);
+            churn.scheduleAtFixedRate(() -> github.churn(intOption(options, "churn", 20)),
+                    churnInterval, churnInterval, TimeUnit.SECONDS);
+
+            try {
+                if (options.containsKey("github-only")) {
+                    Thread.currentThread().join();
+                }
+
+                List<ConfigurableApplicationContext> applications = new ArrayList<>();
+                List<String> targets = new ArrayList<>();
+                if (options.containsKey("target")) {
+                    targets.addAll(Arrays.asList(options.get("target").split(",")));
+                }
+                try {
+                    if (targets.isEmpty()) {
+                        int replicas = intOption(options, "replicas", 1);
+                        Map<String, String> properties = new LinkedHashMap<>();
+                        properties.put("server.port", "0");
+                        properties.put("github.api.base-url", github.baseUrl());
+                        properties.put("github.token", "load-test");
+                        properties.put("github.snapshot.enabled", "false");
+                        properties.put("github.enrichment.enabled", "false");
+                        properties.put("spring.jpa.show-sql", "false");
+                        if (replicas > 1) {
+                            Path database = Files.createTempDirectory("repo-dashboard-cluster").resolve("dashboard");
+                            properties.put("spring.datasource.url", "jdbc:h2:file:" + database + ";AUTO_SERVER=TRUE");
+                            properties.put("spring.jpa.hibernate.ddl-auto", "update");
+                            properties.put("cluster.enabled", "true");
+                        }
+                        // Started one after the other, so the first replica has taken the sync lease before the initial sync
+                        for (int replica = 0; replica < replicas; replica++) {
+                            properties.put("cluster.instance-id", "replica-" + replica);
+                            ConfigurableApplicationContext application = new SpringApplicationBuilder(RepoDashboardApplication.class)
+                                    .run(commandLine(properties, options, args));
+                            applications.add(application);
+                            targets.add("http://localhost:" + application.getEnvironment().getProperty("local.server.port"));
+                        }
+                    }
+
+                    run(targets, github, options);
+                } finally {
+                    applications.forEach(ConfigurableApplicationContext::close);
+                }
+                System.out.println("\nFake GitHub API: " + github.summary());
+            } finally {
+                churn.shutdownNow();
+            }
+        }
+    }
+
+    private static void run(List<String> targets, FakeGitHubServer github, Map<String, String> options) throws InterruptedException {
+        Map<String, Integer> mix = LoadDriver.defaultMix();
+        if (options.containsKey("mix")) {
+            for (String entry : options.get("mix").split(",")) {
+                String[] parts = entry.split(":");
+                mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        LoadDriver driver = new LoadDriver(targets, github, mix);
+
+        // Load the snapshot once so the phases measure steady-state serving, not the first sync
+        long start = System.nanoTime();
+        int status = driver.send(driver.post(targets.get(0), "/api/repos/refresh"));
+        System.out.printf("Initial sync against %s: HTTP %d in %.0f ms%n", targets.get(0), status, (System.nanoTime() - start) / 1e6);
+
+        driver.run(phases(options.getOrDefault("phases", "warmup:15:8,ramp:30:32,sustained:60:64")));
+    }
+
+    /**
+     * Passes the harness settings as command line arguments, which take precedence over
+     * application.properties (default properties would not). Settings given on the command line win.
+     */
+    private static String[] commandLine(Map<String, String> properties, Map<String, String> options, String[] args) {
+        List<String> commandLine = new ArrayList<>();
+        properties.forEach((name, value) -> {
+            if (!options.containsKey(name)) {
+                commandLine.add("--" + name + "=" + value);
+            }
+        });
+        commandLine.addAll(Arrays.asList(args));
+        return commandLine.toArray(String[]::new);
+    }
+
+    private static List<LoadDriver.Phase> phases(String specification) {
+        List<LoadDriver.Phase> phases = new ArrayList<>();
+        for (String entry : specification.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Phases are name:seconds:users, got " + entry);
+            }
+            phases.add(new LoadDriver.Phase(parts[0].trim(),
+                    Duration.ofSeconds(Long.parseLong(parts[1].trim())),
+                    Integer.parseInt(parts[2].trim())));
+        }
+        return phases;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
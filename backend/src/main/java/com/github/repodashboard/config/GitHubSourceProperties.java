@@ -0,0 +1,61 @@
+package com.github.repodashboard.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The accounts whose repositories are synced, bound from {@code github.sync.sources[n].*}.
+ * When no source is configured, the repositories of the user owning {@code github.token} are synced.
+ */
+@ConfigurationProperties(prefix = "github.sync")
+public class GitHubSourceProperties {
+
+    public enum SourceType { AUTHENTICATED, USER, ORG }
+
+    public static class Source {
+
+        private String name;
+        private SourceType type = SourceType.AUTHENTICATED;
+        private String owner;
+        private String token;
+
+        public Source() {}
+
+        public Source(String name, SourceType type, String owner, String token) {
+            this.name = name;
+            this.type = type;
+            this.owner = owner;
+            this.token = token;
+        }
+
+        /**
+         * Repository list endpoint for this source, relative to the API base URL.
+         */
+        public String getRepositoriesPath() {
+            return switch (type) {
+                case AUTHENTICATED -> "/user/repos?type=all";
+                case USER -> "/users/" + owner + "/repos?type=all";
+                case ORG -> "/orgs/" + owner + "/repos?type=all";
+            };
+        }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public SourceType getType() { return type; }
+        public void setType(SourceType type) { this.type = type; }
+
+        public String getOwner() { return owner; }
+        public void setOwner(String owner) { this.owner = owner; }
+
+        public String getToken() { return token; }
+        public void setToken(String token) { this.token = token; }
+    }
+
+    private List<Source> sources = new ArrayList<>();
+
+    public List<Source> getSources() { return sources; }
+    public void setSources(List<Source> sources) { this.sources = sources; }
+}
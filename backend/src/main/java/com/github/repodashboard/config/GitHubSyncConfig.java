@@ -0,0 +1,9 @@
+package com.github.repodashboard.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GitHubSourceProperties.class)
+public class GitHubSyncConfig {
+}
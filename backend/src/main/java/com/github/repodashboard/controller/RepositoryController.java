@@ -1,12 +1,37 @@
 package com.github.repodashboard.controller;
 
+import com.github.repodashboard.dto.RepositoryGrowth;
+import com.github.repodashboard.dto.RepositoryPage;
+import com.github.repodashboard.dto.RepositoryQuery;
+import com.github.repodashboard.dto.RepositoryStats;
+import com.github.repodashboard.dto.RepositoryTrend;
 import com.github.repodashboard.model.Repository;
 import com.github.repodashboard.service.GitHubService;
+import com.github.repodashboard.service.RepositoryChangeFeed;
+import com.github.repodashboard.service.RepositoryHistoryStore;
+import com.github.repodashboard.service.RepositoryMetrics;
+import com.github.repodashboard.service.RepositoryQueryService;
+import com.github.repodashboard.service.RepositorySnapshot;
+import com.github.repodashboard.service.RepositoryStatsEngine;
+import com.github.repodashboard.service.VersionedResponseCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 
 @RestController
 @RequestMapping("/api")
@@ -14,61 +39,288 @@ import java.util.Map;
 public class RepositoryController {
 
     private final GitHubService gitHubService;
+    private final RepositoryQueryService repositoryQueryService;
+    private final VersionedResponseCache responseCache;
+    private final RepositoryMetrics metrics;
+    private final RepositoryChangeFeed changeFeed;
+    private final RepositoryHistoryStore historyStore;
 
-    public RepositoryController(GitHubService gitHubService) {
+    public RepositoryController(GitHubService gitHubService,
+                                RepositoryQueryService repositoryQueryService,
+                                VersionedResponseCache responseCache,
+                                RepositoryMetrics metrics,
+                                RepositoryChangeFeed changeFeed,
+                                RepositoryHistoryStore historyStore) {
         this.gitHubService = gitHubService;
+        this.repositoryQueryService = repositoryQueryService;
+        this.responseCache = responseCache;
+        this.metrics = metrics;
+        this.changeFeed = changeFeed;
+        this.historyStore = historyStore;
     }
 
     @GetMapping("/repos")
-    public ResponseEntity<List<Repository>> getAllRepositories(
+    public ResponseEntity<?> getAllRepositories(
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String source,
+            @RequestParam(name = "private", required = false) Boolean isPrivate,
+            @RequestParam(required = false) Boolean fork,
+            @RequestParam(required = false) String topic,
+            @RequestParam(required = false) String usesLanguage,
+            @RequestParam(required = false) Boolean hasOpenIssues,
+            @RequestParam(required = false) String committedSince,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) List<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+
+        RepositorySnapshot snapshot = gitHubService.getSnapshot();
+        RepositoryQuery query = new RepositoryQuery(search, language, source, isPrivate, fork,
+                topic, usesLanguage, hasOpenIssues, committedSince, sort, order, limit, cursor);
+
+        if (query.isUnfiltered() && (fields == null || fields.isEmpty())) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("X-Total-Count", String.valueOf(snapshot.size()));
+            metrics.recordResultSize("repos", snapshot.size());
+            return cachedJson("repos", snapshot.getEpoch(), snapshot.getVersion(), snapshot::getRepositories, headers, acceptEncoding, webRequest);
+        }
+
+        String etag = VersionedResponseCache.etag(queryKey("repos", query, fields), snapshot.getEpoch(),
+                snapshot.getVersion(), false);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        RepositoryPage page = repositoryQueryService.query(snapshot, query);
+        metrics.recordResultSize("repos", page.items().size());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header("X-Total-Count", String.valueOf(page.total()));
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+
+        if (fields != null && !fields.isEmpty()) {
+            return response.body(repositoryQueryService.project(page.items(), fields));
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Server-Sent Events feed of repository changes. Browsers resume with {@code Last-Event-ID}
+     * automatically; other clients may pass the data epoch and version they hold as {@code since}.
+     */
+    @GetMapping(value = "/repos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String since) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .cacheControl(CacheControl.noStore())
+                    .body(changeFeed.subscribe(trimToNull(lastEventId), trimToNull(since)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
+    /**
+     * Star and fork counts of one repository over {@code window} (an ISO-8601 duration such as
+     * {@code P90D}), per hour, day or week, or as the raw recorded samples.
+     */
+    @GetMapping("/repos/{id}/trend")
+    public ResponseEntity<RepositoryTrend> getRepositoryTrend(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "day") String resolution,
+            @RequestParam(defaultValue = "P90D") String window) {
+        if (gitHubService.getSnapshot().getRepository(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        RepositoryHistoryStore.Resolution bucketResolution = RepositoryHistoryStore.Resolution.parse(resolution);
+        RepositoryTrend trend = historyStore.trend(id, bucketResolution, parseWindow(window));
+        if (trend == null) {
+            // Known repository that no sync has recorded yet
+            trend = new RepositoryTrend(id, resolution.toLowerCase(), List.of());
+        }
+        metrics.recordResultSize("trend", trend.points().size());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(trend);
+    }
+
+    /**
+     * Repositories whose star (or fork) count grew the most over {@code window}.
+     */
+    @GetMapping("/repos/trending")
+    public ResponseEntity<List<RepositoryGrowth>> getTrendingRepositories(
+            @RequestParam(defaultValue = "P7D") String window,
+            @RequestParam(defaultValue = "stars") String metric,
+            @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) String language) {
-        
-        List<Repository> repositories;
-        
-        if (search != null && !search.trim().isEmpty()) {
-            repositories = gitHubService.searchRepositories(search);
-        } else if (language != null && !language.trim().isEmpty()) {
-            repositories = gitHubService.filterByLanguage(language);
-        } else {
-            repositories = gitHubService.getAllRepositories();
+        if (limit > 100) {
+            throw new IllegalArgumentException("limit must not exceed 100");
         }
-        
-        return ResponseEntity.ok(repositories);
+        List<RepositoryGrowth> growth = historyStore.fastestGrowing(gitHubService.getSnapshot(), parseWindow(window),
+                RepositoryHistoryStore.Metric.parse(metric), language != null && !language.isBlank() ? language : null, limit);
+        metrics.recordResultSize("trending", growth.size());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(growth);
     }
 
     @PostMapping("/repos/refresh")
     public ResponseEntity<List<Repository>> refreshRepositories() {
         List<Repository> repositories = gitHubService.fetchAndCacheRepositories();
+        metrics.recordResultSize("refresh", repositories.size());
         return ResponseEntity.ok(repositories);
     }
 
     @GetMapping("/repos/languages")
-    public ResponseEntity<List<String>> getAvailableLanguages() {
-        List<String> languages = gitHubService.getAvailableLanguages();
-        return ResponseEntity.ok(languages);
+    public ResponseEntity<byte[]> getAvailableLanguages(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        RepositorySnapshot snapshot = gitHubService.getSnapshot();
+        metrics.recordResultSize("languages", snapshot.getLanguages().size());
+        return cachedJson("languages", snapshot.getEpoch(), snapshot.getVersion(), snapshot::getLanguages, new HttpHeaders(), acceptEncoding, webRequest);
+    }
+
+    @GetMapping(value = "/repos/languages", params = "counts=true")
+    public ResponseEntity<byte[]> getLanguageFacets(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        RepositoryStatsEngine.VersionedStats stats = gitHubService.getVersionedRepositoryStats();
+        metrics.recordResultSize("language-facets", stats.stats().languages().size());
+        return cachedJson("language-facets", stats.epoch(), stats.version(), () -> stats.stats().languages(), new HttpHeaders(), acceptEncoding, webRequest);
     }
 
     @GetMapping("/repos/stats")
-    public ResponseEntity<Map<String, Object>> getRepositoryStats() {
-        List<Repository> repositories = gitHubService.getAllRepositories();
-        
-        int totalRepos = repositories.size();
-        int publicRepos = (int) repositories.stream().filter(repo -> !repo.getIsPrivate()).count();
-        int privateRepos = (int) repositories.stream().filter(Repository::getIsPrivate).count();
-        int forkedRepos = (int) repositories.stream().filter(Repository::getIsFork).count();
-        int totalStars = repositories.stream().mapToInt(Repository::getStargazersCount).sum();
-        int totalForks = repositories.stream().mapToInt(Repository::getForksCount).sum();
-        
-        Map<String, Object> stats = Map.of(
-            "totalRepositories", totalRepos,
-            "publicRepositories", publicRepos,
-            "privateRepositories", privateRepos,
-            "forkedRepositories", forkedRepos,
-            "totalStars", totalStars,
-            "totalForks", totalForks
-        );
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<?> getRepositoryStats(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String source,
+            @RequestParam(name = "private", required = false) Boolean isPrivate,
+            @RequestParam(required = false) Boolean fork,
+            @RequestParam(required = false) String topic,
+            @RequestParam(required = false) String usesLanguage,
+            @RequestParam(required = false) Boolean hasOpenIssues,
+            @RequestParam(required = false) String committedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        RepositoryQuery query = new RepositoryQuery(search, language, source, isPrivate, fork,
+                topic, usesLanguage, hasOpenIssues, committedSince, null, null, null, null);
+        if (query.isUnfiltered()) {
+            RepositoryStatsEngine.VersionedStats stats = gitHubService.getVersionedRepositoryStats();
+            return cachedJson("stats", stats.epoch(), stats.version(), stats::stats, new HttpHeaders(), acceptEncoding, webRequest);
+        }
+
+        // Filtered stats are aggregated from the snapshot's columns on each request
+        RepositorySnapshot snapshot = gitHubService.getSnapshot();
+        String etag = VersionedResponseCache.etag(queryKey("stats", query, null), snapshot.getEpoch(),
+                snapshot.getVersion(), false);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        RepositoryStats stats = repositoryQueryService.stats(snapshot, query);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(stats);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "error", "Bad Request",
+            "message", e.getMessage(),
+            "timestamp", Instant.now().toString()
+        ));
+    }
+
+    private static String trimToNull(String value) {
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    /**
+     * Response key of a filtered representation. Caches may share a tag across URLs, so the tag
+     * names the query as well as the data version.
+     */
+    private static String queryKey(String key, RepositoryQuery query, List<String> fields) {
+        CRC32 checksum = new CRC32();
+        checksum.update((query + "|" + fields).getBytes(StandardCharsets.UTF_8));
+        return key + "-q" + Long.toHexString(checksum.getValue());
+    }
+
+    /**
+     * Whether the Accept-Encoding header admits gzip, by name or through {@code *}, with a non-zero
+     * q-value; an explicit {@code gzip;q=0} wins over the wildcard.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        double effective = gzipQuality != null ? gzipQuality : wildcardQuality != null ? wildcardQuality : 0;
+        return effective > 0;
+    }
+
+    private static Duration parseWindow(String window) {
+        try {
+            return Duration.parse(window);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("window must be an ISO-8601 duration such as P7D or PT12H", e);
+        }
+    }
+
+    /**
+     * Answers with 304 when the client already holds this version, otherwise with the body
+     * serialized (and gzip-compressed, if accepted) once per data version.
+     */
+    private ResponseEntity<byte[]> cachedJson(String key, String epoch, long version, Supplier<?> body, HttpHeaders headers,
+                                              String acceptEncoding, WebRequest webRequest) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = VersionedResponseCache.etag(key, epoch, version, gzip);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        VersionedResponseCache.CachedResponse cached = responseCache.get(key, epoch, version, body);
+        metrics.recordResponseBytes(key, gzip, gzip ? cached.gzip().length : cached.json().length);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .headers(headers);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+        }
+        return response.body(cached.json());
     }
-}
\ No newline at end of file
+}
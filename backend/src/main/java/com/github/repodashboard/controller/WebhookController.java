@@ -1,6 +1,8 @@
 package com.github.repodashboard.controller;
 
-import com.github.repodashboard.service.GitHubService;
+import com.github.repodashboard.service.WebhookEventProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,10 +13,12 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class WebhookController {
 
-    private final GitHubService gitHubService;
+    private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
 
-    public WebhookController(GitHubService gitHubService) {
-        this.gitHubService = gitHubService;
+    private final WebhookEventProcessor webhookEventProcessor;
+
+    public WebhookController(WebhookEventProcessor webhookEventProcessor) {
+        this.webhookEventProcessor = webhookEventProcessor;
     }
 
     @PostMapping("/github")
@@ -22,36 +26,22 @@ public class WebhookController {
             @RequestHeader("X-GitHub-Event") String eventType,
             @RequestHeader(value = "X-GitHub-Delivery", required = false) String deliveryId,
             @RequestBody Map<String, Object> payload) {
-        
-        System.out.println("Received GitHub webhook: " + eventType);
-        System.out.println("Delivery ID: " + deliveryId);
-        
-        // Handle repository events
-        if ("repository".equals(eventType)) {
-            String action = (String) payload.get("action");
-            System.out.println("Repository action: " + action);
-            
-            // Trigger repository refresh for relevant actions
-            if ("created".equals(action) || "deleted".equals(action) || 
-                "publicized".equals(action) || "privatized".equals(action) ||
-                "edited".equals(action)) {
-                
-                System.out.println("Refreshing repositories due to repository event...");
-                gitHubService.fetchAndCacheRepositories();
-            }
-        }
-        
-        // Handle push events (in case repository metadata changes)
-        else if ("push".equals(eventType)) {
-            System.out.println("Received push event, checking for repository updates...");
-            gitHubService.fetchAndCacheRepositories();
-        }
-        
-        return ResponseEntity.ok("Webhook processed successfully");
+
+        log.debug("Received GitHub webhook event={} delivery={}", eventType, deliveryId);
+
+        // Acknowledge immediately; repository and push events are applied asynchronously
+        webhookEventProcessor.submit(eventType, deliveryId, payload);
+
+        return ResponseEntity.accepted().body("Webhook accepted");
     }
 
     @GetMapping("/github")
     public ResponseEntity<String> webhookHealthCheck() {
         return ResponseEntity.ok("GitHub webhook endpoint is active");
     }
-}
\ No newline at end of file
+
+    @GetMapping("/github/metrics")
+    public ResponseEntity<WebhookEventProcessor.WebhookMetrics> webhookMetrics() {
+        return ResponseEntity.ok(webhookEventProcessor.getMetrics());
+    }
+}
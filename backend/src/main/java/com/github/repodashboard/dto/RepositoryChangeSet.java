@@ -0,0 +1,19 @@
+package com.github.repodashboard.dto;
+
+import com.github.repodashboard.model.Repository;
+
+import java.util.List;
+
+/**
+ * Rows a sync inserted, updated or deleted, carrying the new state of added and updated repositories.
+ */
+public record RepositoryChangeSet(List<Repository> added, List<Repository> updated, List<Long> removed) {
+
+    public static RepositoryChangeSet empty() {
+        return new RepositoryChangeSet(List.of(), List.of(), List.of());
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+}
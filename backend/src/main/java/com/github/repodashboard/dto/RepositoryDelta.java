@@ -0,0 +1,16 @@
+package com.github.repodashboard.dto;
+
+import com.github.repodashboard.model.Repository;
+
+import java.util.List;
+
+/**
+ * Changes between two consecutive snapshot versions, as pushed to change feed subscribers, with
+ * the stats of the new version.
+ */
+public record RepositoryDelta(long version,
+                              long previousVersion,
+                              List<Repository> added,
+                              List<Repository> updated,
+                              List<Long> removed,
+                              RepositoryStats stats) {}
@@ -0,0 +1,18 @@
+package com.github.repodashboard.dto;
+
+import java.time.Instant;
+
+/**
+ * Growth of a repository's star or fork count over a window. {@code since} is when
+ * {@code previous} was observed: the window start, or when tracking began if that was later.
+ * {@code growthRate} is null when {@code previous} is zero.
+ */
+public record RepositoryGrowth(long id,
+                               String name,
+                               String fullName,
+                               String language,
+                               int current,
+                               int previous,
+                               int growth,
+                               Double growthRate,
+                               Instant since) {}
@@ -0,0 +1,10 @@
+package com.github.repodashboard.dto;
+
+import com.github.repodashboard.model.Repository;
+
+import java.util.List;
+
+/**
+ * One page of a {@link RepositoryQuery} result; {@code nextCursor} is null on the last page.
+ */
+public record RepositoryPage(List<Repository> items, String nextCursor, int total) {}
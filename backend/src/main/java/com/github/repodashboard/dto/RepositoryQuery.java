@@ -0,0 +1,35 @@
+package com.github.repodashboard.dto;
+
+/**
+ * Filters, ordering and paging for {@code GET /api/repos}. Every property is optional; filters are
+ * combined with AND. {@code topic}, {@code usesLanguage}, {@code hasOpenIssues} and
+ * {@code committedSince} (an ISO-8601 instant or date) filter on enriched details.
+ */
+public record RepositoryQuery(String search,
+                              String language,
+                              String source,
+                              Boolean isPrivate,
+                              Boolean isFork,
+                              String topic,
+                              String usesLanguage,
+                              Boolean hasOpenIssues,
+                              String committedSince,
+                              String sort,
+                              String order,
+                              Integer limit,
+                              String cursor) {
+
+    public boolean isPaginated() {
+        return limit != null || cursor != null;
+    }
+
+    public boolean isUnfiltered() {
+        return isBlank(search) && isBlank(language) && isBlank(source) && isPrivate == null && isFork == null
+                && isBlank(topic) && isBlank(usesLanguage) && hasOpenIssues == null && isBlank(committedSince)
+                && isBlank(sort) && isBlank(order) && !isPaginated();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.repodashboard.dto;
+
+import java.util.Map;
+
+public record RepositoryStats(int totalRepositories,
+                              int publicRepositories,
+                              int privateRepositories,
+                              int forkedRepositories,
+                              long totalStars,
+                              long totalForks,
+                              Map<String, LanguageFacet> languages) {
+
+    public record LanguageFacet(int repositories, long stars) {}
+
+    public static RepositoryStats empty() {
+        return new RepositoryStats(0, 0, 0, 0, 0, 0, Map.of());
+    }
+}
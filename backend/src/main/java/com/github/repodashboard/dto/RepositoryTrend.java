@@ -0,0 +1,13 @@
+package com.github.repodashboard.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Star and fork counts of one repository per time bucket, oldest first. A bucket without a
+ * recorded change carries the counts of the bucket before it.
+ */
+public record RepositoryTrend(long id, String resolution, List<Point> points) {
+
+    public record Point(Instant bucket, int stars, int forks) {}
+}
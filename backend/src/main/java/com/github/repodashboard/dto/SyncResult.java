@@ -0,0 +1,19 @@
+package com.github.repodashboard.dto;
+
+public record SyncResult(RepositoryChangeSet changes, int unchanged) {
+
+    public int inserted() { return changes.added().size(); }
+
+    public int updated() { return changes.updated().size(); }
+
+    public int deleted() { return changes.removed().size(); }
+
+    public boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return inserted() + " inserted, " + updated() + " updated, " + deleted() + " deleted, " + unchanged + " unchanged";
+    }
+}
@@ -2,6 +2,8 @@ package com.github.repodashboard.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Entity
 @Table(name = "repositories")
@@ -43,8 +45,43 @@ public class Repository {
     @Column(nullable = false)
     private Boolean isFork;
 
+    // Name of the sync source (user or organisation) this repository was fetched from
+    private String source;
+
+    // Details fetched per repository by RepositoryEnricher; null until the repository has been enriched
+    @ElementCollection
+    @CollectionTable(name = "repository_topics", joinColumns = @JoinColumn(name = "repository_id"))
+    @Column(name = "topic")
+    private List<String> topics;
+
+    // Bytes of code per language, as reported by GitHub's languages endpoint
+    @ElementCollection
+    @CollectionTable(name = "repository_languages", joinColumns = @JoinColumn(name = "repository_id"))
+    @MapKeyColumn(name = "language")
+    @Column(name = "bytes")
+    private Map<String, Long> languageBytes;
+
+    // GitHub counts open pull requests as open issues
+    private Integer openIssuesCount;
+
+    private String lastCommitSha;
+
+    private LocalDateTime lastCommitAt;
+
+    private LocalDateTime enrichedAt;
+
     public Repository() {}
 
+    /**
+     * Copies every property, so a published row can be replaced rather than modified in place.
+     */
+    public Repository(Repository other) {
+        this(other.id, other.name, other.fullName, other.description, other.htmlUrl, other.stargazersCount,
+                other.forksCount, other.language, other.createdAt, other.updatedAt, other.isPrivate, other.isFork);
+        this.source = other.source;
+        copyDetailsFrom(other);
+    }
+
     public Repository(Long id, String name, String fullName, String description, 
                      String htmlUrl, Integer stargazersCount, Integer forksCount, 
                      String language, LocalDateTime createdAt, LocalDateTime updatedAt,
@@ -99,4 +136,41 @@ public class Repository {
 
     public Boolean getIsFork() { return isFork; }
     public void setIsFork(Boolean isFork) { this.isFork = isFork; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public List<String> getTopics() { return topics; }
+    public void setTopics(List<String> topics) { this.topics = topics; }
+
+    public Map<String, Long> getLanguageBytes() { return languageBytes; }
+    public void setLanguageBytes(Map<String, Long> languageBytes) { this.languageBytes = languageBytes; }
+
+    public Integer getOpenIssuesCount() { return openIssuesCount; }
+    public void setOpenIssuesCount(Integer openIssuesCount) { this.openIssuesCount = openIssuesCount; }
+
+    public String getLastCommitSha() { return lastCommitSha; }
+    public void setLastCommitSha(String lastCommitSha) { this.lastCommitSha = lastCommitSha; }
+
+    public LocalDateTime getLastCommitAt() { return lastCommitAt; }
+    public void setLastCommitAt(LocalDateTime lastCommitAt) { this.lastCommitAt = lastCommitAt; }
+
+    public LocalDateTime getEnrichedAt() { return enrichedAt; }
+    public void setEnrichedAt(LocalDateTime enrichedAt) { this.enrichedAt = enrichedAt; }
+
+    /**
+     * Whether the enriched details predate the last update GitHub reported, or were never fetched.
+     */
+    public boolean needsEnrichment() {
+        return enrichedAt == null || (updatedAt != null && enrichedAt.isBefore(updatedAt));
+    }
+
+    public void copyDetailsFrom(Repository other) {
+        this.topics = other.topics;
+        this.languageBytes = other.languageBytes;
+        this.openIssuesCount = other.openIssuesCount;
+        this.lastCommitSha = other.lastCommitSha;
+        this.lastCommitAt = other.lastCommitAt;
+        this.enrichedAt = other.enrichedAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.github.repodashboard.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One repository a leader write touched, keyed by the data version the write advanced to, so the
+ * other replicas can read just the rows that changed. Read and written by RepositoryReconciler
+ * with plain SQL; mapped here so the schema is created with the rest of the tables.
+ */
+@Entity
+@Table(name = "repository_changes")
+@IdClass(RepositoryChange.Key.class)
+public class RepositoryChange {
+
+    public static class Key implements Serializable {
+
+        private Long dataVersion;
+        private Long repositoryId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key
+                    && Objects.equals(dataVersion, key.dataVersion) && Objects.equals(repositoryId, key.repositoryId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dataVersion, repositoryId);
+        }
+    }
+
+    @Id
+    private Long dataVersion;
+
+    @Id
+    private Long repositoryId;
+
+    // Whether the write deleted the row rather than inserting or updating it
+    @Column(nullable = false)
+    private Boolean removed;
+
+    public RepositoryChange() {}
+
+    public Long getDataVersion() { return dataVersion; }
+    public void setDataVersion(Long dataVersion) { this.dataVersion = dataVersion; }
+
+    public Long getRepositoryId() { return repositoryId; }
+    public void setRepositoryId(Long repositoryId) { this.repositoryId = repositoryId; }
+
+    public Boolean getRemoved() { return removed; }
+    public void setRemoved(Boolean removed) { this.removed = removed; }
+}
@@ -0,0 +1,60 @@
+package com.github.repodashboard.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The row replicas sharing a database coordinate through: who holds the sync lease, and how far
+ * the data every replica serves has advanced. Read and written by ClusterCoordinator with plain
+ * SQL; mapped here so the schema is created with the rest of the tables.
+ */
+@Entity
+@Table(name = "sync_lease")
+public class SyncLease {
+
+    @Id
+    private String name;
+
+    // Instance id of the replica allowed to sync, or null while nobody holds the lease
+    private String holder;
+
+    // Epoch milliseconds after which the lease may be taken over
+    @Column(nullable = false)
+    private Long expiresAt;
+
+    // Advanced by every write of the leader, so the other replicas know when to reload
+    @Column(nullable = false)
+    private Long dataVersion;
+
+    // Incremented by replicas that want the leader to sync, e.g. after receiving a webhook
+    @Column(nullable = false)
+    private Long syncRequests;
+
+    // Epoch milliseconds of the leader's last sync that reached GitHub
+    private Long syncedAt;
+
+    // Random id drawn with the row, telling data versions apart from those of an earlier database
+    private String epoch;
+
+    public SyncLease() {}
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getHolder() { return holder; }
+    public void setHolder(String holder) { this.holder = holder; }
+
+    public Long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Long expiresAt) { this.expiresAt = expiresAt; }
+
+    public Long getDataVersion() { return dataVersion; }
+    public void setDataVersion(Long dataVersion) { this.dataVersion = dataVersion; }
+
+    public Long getSyncRequests() { return syncRequests; }
+    public void setSyncRequests(Long syncRequests) { this.syncRequests = syncRequests; }
+
+    public Long getSyncedAt() { return syncedAt; }
+    public void setSyncedAt(Long syncedAt) { this.syncedAt = syncedAt; }
+
+    public String getEpoch() { return epoch; }
+    public void setEpoch(String epoch) { this.epoch = epoch; }
+}
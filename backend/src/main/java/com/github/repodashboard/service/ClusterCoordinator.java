@@ -0,0 +1,297 @@
+package com.github.repodashboard.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coordinates replicas that share one database, so that only one of them syncs with GitHub.
+ *
+ * <p>The replicas compete for a lease in the {@code sync_lease} table: every
+ * {@code cluster.poll-interval-ms} each one tries to take or renew it, and the holder stays leader
+ * until it stops renewing for {@code cluster.lease-ttl-ms}. Only the leader fetches and writes.
+ * Every leader write that changes data advances the row's data version in the same transaction,
+ * and only while the lease is still held, so a leader that stalled past its lease cannot
+ * overwrite its successor. The other replicas reload their snapshot when they see the data
+ * version move, reading back just the rows the leader's writes recorded as changed, and forward
+ * refreshes they are asked for by incrementing the row's sync request counter, which the leader
+ * watches. The row also holds the data's epoch, drawn when the row is created, so versions
+ * counted in a database that was since recreated are never mistaken for current ones by clients
+ * holding ETags or change feed ids.
+ *
+ * <p>Lease expiry compares the replicas' own clocks, which must agree to well within the lease
+ * TTL. With {@code cluster.enabled=false} (a single instance) this replica is always the leader
+ * and writes do not touch the lease row.
+ */
+@Component
+public class ClusterCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private static final String LEASE_NAME = "repository-sync";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM sync_lease WHERE name = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO sync_lease " +
+            "(name, holder, expires_at, data_version, sync_requests, synced_at, epoch) VALUES (?, NULL, 0, 0, 0, NULL, ?)";
+
+    private static final String FILL_EPOCH_SQL = "UPDATE sync_lease SET epoch = ? WHERE name = ? AND epoch IS NULL";
+
+    private static final String ACQUIRE_SQL = "UPDATE sync_lease SET holder = ?, expires_at = ?, " +
+            "synced_at = COALESCE(?, synced_at) WHERE name = ? AND (holder = ? OR holder IS NULL OR expires_at < ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT holder, data_version, sync_requests, synced_at FROM sync_lease WHERE name = ?";
+
+    private static final String SELECT_VERSION_SQL = "SELECT data_version, epoch FROM sync_lease WHERE name = ?";
+
+    private static final String ADVANCE_SQL = "UPDATE sync_lease SET data_version = GREATEST(data_version, ?) + 1 " +
+            "WHERE name = ? AND holder = ? AND expires_at >= ?";
+
+    private static final String REQUEST_SYNC_SQL = "UPDATE sync_lease SET sync_requests = sync_requests + 1 WHERE name = ?";
+
+    private static final String RELEASE_SQL = "UPDATE sync_lease SET holder = NULL, expires_at = 0 WHERE name = ? AND holder = ?";
+
+    /**
+     * A value read or written together with the data epoch and version it belongs to; the version
+     * is 0 and the epoch {@code null} when clustering is disabled or the write changed nothing.
+     */
+    public record Versioned<T>(T value, String epoch, long dataVersion) {}
+
+    private record DataVersion(String epoch, long version) {}
+
+    private record LeaseState(String holder, long dataVersion, long syncRequests, Instant syncedAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String instanceId;
+    private final long leaseTtlMs;
+    private final long pollIntervalMs;
+    private final ScheduledExecutorService pollExecutor;
+    private boolean leaseRowCreated;
+    private volatile boolean leader;
+    private volatile long leaseExpiresAt;
+    private volatile long dataVersion;
+    private volatile Instant lastSyncAt;
+
+    public ClusterCoordinator(JdbcTemplate jdbcTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              RepositoryMetrics metrics,
+                              @Value("${cluster.enabled:false}") boolean enabled,
+                              @Value("${cluster.instance-id:}") String instanceId,
+                              @Value("${cluster.lease-ttl-ms:15000}") long leaseTtlMs,
+                              @Value("${cluster.poll-interval-ms:2000}") long pollIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.instanceId = instanceId != null && !instanceId.isBlank() ? instanceId : defaultInstanceId();
+        this.leaseTtlMs = leaseTtlMs;
+        // Renewing less often than the TTL allows would let the lease lapse between polls
+        this.pollIntervalMs = Math.max(100, Math.min(pollIntervalMs, leaseTtlMs / 3));
+        this.pollExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            metrics.registerGauge("cluster.leader", "Whether this replica holds the sync lease", this,
+                    coordinator -> coordinator.isLeader() ? 1 : 0);
+            metrics.registerGauge("cluster.data.version", "Latest shared data version seen by this replica", this,
+                    coordinator -> coordinator.dataVersion);
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "replica";
+        }
+        // Unique even when a replica restarts on the same host before its old lease expired
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Starts polling once the schema exists and every listener is registered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            log.info("Joining sync cluster instance={} leaseTtlMs={} pollIntervalMs={}", instanceId, leaseTtlMs, pollIntervalMs);
+            pollExecutor.scheduleWithFixedDelay(this::poll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether this replica may sync and write. Stops being true as soon as the lease would have
+     * expired without a renewal, even if the poll that notices has not run yet.
+     */
+    public boolean isLeader() {
+        return !enabled || (leader && System.currentTimeMillis() < leaseExpiresAt);
+    }
+
+    /**
+     * The shared data version as of the last poll.
+     */
+    public long dataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * Reports the leader's last sync that reached GitHub; it is shared with the next lease renewal.
+     */
+    public void recordSync(Instant syncedAt) {
+        lastSyncAt = syncedAt;
+    }
+
+    /**
+     * Asks the leader, whichever replica that is, to sync as soon as it next polls.
+     */
+    public void requestSync() {
+        if (enabled) {
+            jdbcTemplate.update(REQUEST_SYNC_SQL, LEASE_NAME);
+        }
+    }
+
+    /**
+     * Runs a write of the leader. When {@code changed} holds for its result the data version is
+     * advanced past {@code publishedVersion}, the version of the snapshot being replaced, and
+     * {@code journal} is given the result and the new version, all in the same transaction.
+     *
+     * @throws IllegalStateException when the lease was lost, rolling the write back
+     */
+    @Transactional
+    public <T> Versioned<T> write(long publishedVersion, Supplier<T> write, Predicate<T> changed,
+                                  ObjLongConsumer<T> journal) {
+        T result = write.get();
+        if (!enabled || !changed.test(result)) {
+            return new Versioned<>(result, null, 0);
+        }
+        if (jdbcTemplate.update(ADVANCE_SQL, publishedVersion, LEASE_NAME, instanceId, System.currentTimeMillis()) == 0) {
+            throw new IllegalStateException("Sync lease lost before the write could commit instance=" + instanceId);
+        }
+        DataVersion version = selectVersion().get(0);
+        journal.accept(result, version.version());
+        return new Versioned<>(result, version.epoch(), version.version());
+    }
+
+    /**
+     * Runs {@code read} with the shared data epoch and version if the version has moved past
+     * {@code loadedVersion}. The read and the version come from one repeatable-read transaction,
+     * so they always match.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public <T> Optional<Versioned<T>> readIfNewer(long loadedVersion, BiFunction<String, Long, T> read) {
+        List<DataVersion> versions = selectVersion();
+        if (versions.isEmpty() || versions.get(0).version() <= loadedVersion) {
+            return Optional.empty();
+        }
+        DataVersion version = versions.get(0);
+        return Optional.of(new Versioned<>(read.apply(version.epoch(), version.version()), version.epoch(), version.version()));
+    }
+
+    private List<DataVersion> selectVersion() {
+        return jdbcTemplate.query(SELECT_VERSION_SQL,
+                (resultSet, rowNum) -> new DataVersion(resultSet.getString(2), resultSet.getLong(1)), LEASE_NAME);
+    }
+
+    private void poll() {
+        try {
+            createLeaseRow();
+            long now = System.currentTimeMillis();
+            Instant syncedAt = leader ? lastSyncAt : null;
+            boolean acquired = jdbcTemplate.update(ACQUIRE_SQL,
+                    new Object[] {instanceId, now + leaseTtlMs, syncedAt != null ? syncedAt.toEpochMilli() : null,
+                            LEASE_NAME, instanceId, now},
+                    new int[] {Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.BIGINT}) > 0;
+            LeaseState state = jdbcTemplate.queryForObject(SELECT_SQL, (resultSet, rowNum) -> {
+                long synced = resultSet.getLong(4);
+                return new LeaseState(resultSet.getString(1), resultSet.getLong(2), resultSet.getLong(3),
+                        resultSet.wasNull() ? null : Instant.ofEpochMilli(synced));
+            }, LEASE_NAME);
+
+            boolean wasLeader = leader;
+            if (acquired) {
+                leaseExpiresAt = now + leaseTtlMs;
+            }
+            leader = acquired;
+            dataVersion = Math.max(dataVersion, state.dataVersion());
+            if (acquired && !wasLeader) {
+                log.info("Acquired sync lease instance={} dataVersion={}", instanceId, state.dataVersion());
+            } else if (!acquired && wasLeader) {
+                // Must not overwrite the newer sync time of the next leader if this replica takes over again
+                lastSyncAt = null;
+                log.warn("Lost sync lease instance={} holder={}", instanceId, state.holder());
+            }
+            eventPublisher.publishEvent(new ClusterStateEvent(acquired, acquired != wasLeader,
+                    state.dataVersion(), state.syncRequests(), state.syncedAt()));
+        } catch (RuntimeException e) {
+            // isLeader() turns false by itself once the lease runs out without a renewal
+            log.warn("Polling the sync lease failed instance={}", instanceId, e);
+        }
+    }
+
+    private void createLeaseRow() {
+        if (leaseRowCreated) {
+            return;
+        }
+        Integer rows = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class, LEASE_NAME);
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, LEASE_NAME, RepositorySnapshotStore.newEpoch());
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Sync lease row created concurrently by another replica");
+            }
+        } else {
+            // A row created before epochs were recorded
+            jdbcTemplate.update(FILL_EPOCH_SQL, RepositorySnapshotStore.newEpoch(), LEASE_NAME);
+        }
+        leaseRowCreated = true;
+    }
+
+    /**
+     * Hands the lease over right away on shutdown, instead of after it expires.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pollExecutor.shutdownNow();
+        if (enabled && leader) {
+            try {
+                jdbcTemplate.update(RELEASE_SQL, LEASE_NAME, instanceId);
+                log.info("Released sync lease instance={}", instanceId);
+            } catch (RuntimeException e) {
+                log.warn("Releasing the sync lease failed, it expires in {}ms instance={}", leaseTtlMs, instanceId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.repodashboard.service;
+
+import java.time.Instant;
+
+/**
+ * Published by {@link ClusterCoordinator} after every poll of the shared lease row: whether this
+ * replica holds the sync lease, how far the shared data has advanced, how many syncs replicas
+ * have asked the leader for, and when the leader last reached GitHub.
+ */
+public record ClusterStateEvent(boolean leader,
+                                boolean leadershipChanged,
+                                long dataVersion,
+                                long syncRequests,
+                                Instant syncedAt) {}
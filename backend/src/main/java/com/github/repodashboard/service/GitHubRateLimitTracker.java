@@ -0,0 +1,76 @@
+package com.github.repodashboard.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the most recent {@code X-RateLimit-*} headers returned by GitHub for each sync source
+ * so that the refresh scheduler can pace itself against the remaining quota.
+ */
+@Component
+public class GitHubRateLimitTracker {
+
+    public record RateLimitStatus(int limit, int remaining, Instant resetAt) {
+
+        public boolean isKnown() {
+            return remaining >= 0 && resetAt != null;
+        }
+
+        public boolean isExhausted(Instant now) {
+            return isKnown() && remaining <= 0 && resetAt.isAfter(now);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubRateLimitTracker.class);
+    private static final RateLimitStatus UNKNOWN = new RateLimitStatus(-1, -1, null);
+
+    private final Map<String, RateLimitStatus> statusBySource = new ConcurrentHashMap<>();
+    private final RepositoryMetrics metrics;
+
+    public GitHubRateLimitTracker(RepositoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void update(String source, HttpHeaders headers) {
+        String remaining = headers.getFirst("X-RateLimit-Remaining");
+        String reset = headers.getFirst("X-RateLimit-Reset");
+        if (remaining == null || reset == null) {
+            return;
+        }
+        try {
+            String limit = headers.getFirst("X-RateLimit-Limit");
+            statusBySource.put(source, new RateLimitStatus(
+                    limit != null ? Integer.parseInt(limit.trim()) : -1,
+                    Integer.parseInt(remaining.trim()),
+                    Instant.ofEpochSecond(Long.parseLong(reset.trim()))));
+            metrics.registerRateLimit(source,
+                    name -> current(name).remaining(),
+                    name -> current(name).limit());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed rate limit headers source={} error={}", source, e.getMessage());
+        }
+    }
+
+    public RateLimitStatus current(String source) {
+        return statusBySource.getOrDefault(source, UNKNOWN);
+    }
+
+    /**
+     * The most constrained known status across all sources, which is what paces a full refresh.
+     */
+    public RateLimitStatus current() {
+        RateLimitStatus mostConstrained = UNKNOWN;
+        for (RateLimitStatus status : statusBySource.values()) {
+            if (status.isKnown() && (!mostConstrained.isKnown() || status.remaining() < mostConstrained.remaining())) {
+                mostConstrained = status;
+            }
+        }
+        return mostConstrained;
+    }
+}
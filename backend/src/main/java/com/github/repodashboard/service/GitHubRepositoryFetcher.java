@@ -0,0 +1,434 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.config.GitHubSourceProperties;
+import com.github.repodashboard.config.GitHubSourceProperties.Source;
+import com.github.repodashboard.config.GitHubSourceProperties.SourceType;
+import com.github.repodashboard.model.Repository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fetches the repository lists of every configured sync source from GitHub.
+ *
+ * <p>Sources are fetched concurrently on virtual threads. Within a source, the first page is
+ * requested on its own so that the {@code Link} header tells us how many pages exist; the remaining
+ * pages are then fetched concurrently. Every request passes through the shared
+ * {@link GitHubRequestBudget}, so the total concurrency and request rate stay bounded no matter how
+ * many sources and pages there are.
+ *
+ * <p>Response bodies are streamed through {@link GitHubRepositoryReader} as they arrive, so a page is
+ * never buffered as raw bytes or as a full GitHub object graph; only the converted rows are kept.
+ *
+ * <p>Every page is requested conditionally with the ETag / Last-Modified of its previous response.
+ * A 304 reuses the rows converted from the previous response, and a source whose pages all came
+ * back unchanged is flagged as not modified so callers can skip persisting it. New responses only
+ * replace the cached ones when the caller {@link #commit commits} the fetch after storing it, so a
+ * sync that fails afterwards fetches the same changes again instead of getting 304s for them.
+ *
+ * <p>Each call is timed and its body size counted in {@link RepositoryMetrics}; the time spent
+ * waiting for the request budget is not part of the call latency.
+ */
+@Component
+public class GitHubRepositoryFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubRepositoryFetcher.class);
+    private static final Pattern LAST_LINK = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"last\"");
+    private static final Pattern PAGE_PARAM = Pattern.compile("[?&]page=(\\d+)");
+    private static final String DEFAULT_SOURCE_NAME = "user";
+
+    /**
+     * Outcome for one source; {@code error} is set (and {@code repositories} empty) when it failed.
+     * {@code pages} holds the responses received by page number, not yet in the page cache.
+     */
+    public record SourceResult(String source,
+                               List<Repository> repositories,
+                               boolean modified,
+                               int lastPage,
+                               Map<Integer, CachedPage> pages,
+                               Exception error) {
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+
+    public record FetchResult(List<SourceResult> sources) {
+
+        public boolean modified() {
+            return sources.stream().anyMatch(source -> source.modified() || !source.isSuccessful());
+        }
+    }
+
+    /**
+     * Conditional request state of one cached page, as persisted in the snapshot file.
+     */
+    public record PageState(String source, int page, String etag, String lastModified, int lastPage, long[] ids) {}
+
+    private record PageKey(String source, int page) {}
+
+    // The cached rows are the instances handed out with the page, so caching them adds no copies
+    record CachedPage(String etag, String lastModified, int lastPage, List<Repository> rows) {}
+
+    // fetched is the new response to cache, or null when the page was not modified
+    private record PageResponse(List<Repository> rows, int lastPage, CachedPage fetched) {
+
+        boolean modified() {
+            return fetched != null;
+        }
+    }
+
+    private final RestTemplate restTemplate;
+    private final GitHubRepositoryReader repositoryReader;
+    private final GitHubRateLimitTracker rateLimitTracker;
+    private final GitHubRequestBudget requestBudget;
+    private final RepositoryMetrics metrics;
+    private final List<Source> sources;
+    private final String baseUrl;
+    private final int pageSize;
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<PageKey, CachedPage> pageCache = new ConcurrentHashMap<>();
+    private final Map<String, Integer> pageCountBySource = new ConcurrentHashMap<>();
+
+    public GitHubRepositoryFetcher(@Value("${github.token}") String githubToken,
+                                   @Value("${github.api.base-url}") String baseUrl,
+                                   @Value("${github.sync.page-size:100}") int pageSize,
+                                   GitHubSourceProperties sourceProperties,
+                                   GitHubRepositoryReader repositoryReader,
+                                   GitHubRateLimitTracker rateLimitTracker,
+                                   GitHubRequestBudget requestBudget,
+                                   RepositoryMetrics metrics) {
+        this.baseUrl = baseUrl;
+        this.pageSize = pageSize;
+        this.repositoryReader = repositoryReader;
+        this.rateLimitTracker = rateLimitTracker;
+        this.requestBudget = requestBudget;
+        this.metrics = metrics;
+        this.restTemplate = new RestTemplate();
+        this.sources = resolveSources(sourceProperties.getSources(), githubToken);
+    }
+
+    /**
+     * Fills in default names and tokens, failing startup on a USER or ORG source without an owner
+     * or on two sources with the same name, since rows are tagged and deleted by source name.
+     */
+    static List<Source> resolveSources(List<Source> configured, String defaultToken) {
+        if (configured.isEmpty()) {
+            return List.of(new Source(DEFAULT_SOURCE_NAME, SourceType.AUTHENTICATED, null, defaultToken));
+        }
+        List<Source> resolved = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < configured.size(); i++) {
+            Source source = configured.get(i);
+            boolean hasOwner = source.getOwner() != null && !source.getOwner().isBlank();
+            if (source.getType() != SourceType.AUTHENTICATED && !hasOwner) {
+                throw new IllegalStateException("github.sync.sources[" + i + "] is of type " + source.getType()
+                        + " and needs an owner");
+            }
+            String name = source.getName() != null && !source.getName().isBlank() ? source.getName()
+                    : hasOwner ? source.getOwner() : source.getType().name().toLowerCase();
+            if (!names.add(name)) {
+                throw new IllegalStateException("github.sync.sources[" + i + "] reuses the source name '" + name
+                        + "'; give each source a distinct name");
+            }
+            String token = source.getToken() != null && !source.getToken().isEmpty() ? source.getToken() : defaultToken;
+            resolved.add(new Source(name, source.getType(), hasOwner ? source.getOwner() : null, token));
+        }
+        return List.copyOf(resolved);
+    }
+
+    /**
+     * Name of the first configured source, used to tag repositories that arrive outside a full sync.
+     */
+    public String getPrimarySourceName() {
+        return sources.get(0).getName();
+    }
+
+    /**
+     * Token of the named source, falling back to the primary source's for unknown names.
+     */
+    String tokenFor(String sourceName) {
+        for (Source source : sources) {
+            if (source.getName().equals(sourceName)) {
+                return source.getToken();
+            }
+        }
+        return sources.get(0).getToken();
+    }
+
+    public Set<String> getSourceNames() {
+        Set<String> names = new LinkedHashSet<>();
+        sources.forEach(source -> names.add(source.getName()));
+        return names;
+    }
+
+    /**
+     * The ETag / Last-Modified of every cached page, with the ids of the rows it returned.
+     */
+    public List<PageState> exportPages() {
+        List<PageState> pages = new ArrayList<>(pageCache.size());
+        pageCache.forEach((key, cached) -> pages.add(new PageState(key.source(), key.page(), cached.etag(),
+                cached.lastModified(), cached.lastPage(), cached.rows().stream().mapToLong(Repository::getId).toArray())));
+        return pages;
+    }
+
+    /**
+     * Primes the page cache from persisted state so that the first fetch after a restart is
+     * conditional. Pages of sources that are no longer configured, or referring to rows that are
+     * not in {@code repositoriesById}, are skipped and will be fetched in full.
+     */
+    public void restorePages(List<PageState> pages, Map<Long, Repository> repositoriesById) {
+        Set<String> sourceNames = getSourceNames();
+        for (PageState page : pages) {
+            if (!sourceNames.contains(page.source())) {
+                continue;
+            }
+            List<Repository> rows = new ArrayList<>(page.ids().length);
+            for (long id : page.ids()) {
+                Repository repository = repositoriesById.get(id);
+                if (repository == null) {
+                    break;
+                }
+                rows.add(repository);
+            }
+            if (rows.size() == page.ids().length) {
+                pageCache.put(new PageKey(page.source(), page.page()),
+                        new CachedPage(page.etag(), page.lastModified(), page.lastPage(), rows));
+                pageCountBySource.merge(page.source(), page.lastPage(), Math::max);
+            }
+        }
+    }
+
+    public FetchResult fetchAllRepositories() {
+        List<CompletableFuture<SourceResult>> pendingSources = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            pendingSources.add(CompletableFuture.supplyAsync(() -> fetchSource(source), fetchExecutor));
+        }
+
+        List<SourceResult> results = new ArrayList<>(sources.size());
+        for (CompletableFuture<SourceResult> pendingSource : pendingSources) {
+            results.add(pendingSource.join());
+        }
+        return new FetchResult(results);
+    }
+
+    /**
+     * Number of pages seen on the last fetch across all sources, i.e. the number of API calls a full
+     * refresh costs.
+     */
+    public int getLastPageCount() {
+        return Math.max(1, pageCountBySource.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private SourceResult fetchSource(Source source) {
+        try {
+            if (rateLimitTracker.current(source.getName()).isExhausted(Instant.now())) {
+                throw new IllegalStateException("Rate limit exhausted for source " + source.getName());
+            }
+
+            PageResponse firstPage = fetchPage(source, 1);
+            Map<Long, Repository> repositoriesById = new LinkedHashMap<>();
+            Map<Integer, CachedPage> fetchedPages = new HashMap<>();
+            addAll(repositoriesById, firstPage.rows());
+            addFetched(fetchedPages, 1, firstPage);
+
+            int lastPage = firstPage.lastPage();
+            boolean modified = firstPage.modified() || lastPage != pageCountBySource.getOrDefault(source.getName(), 0);
+            if (lastPage > 1) {
+                log.debug("Fetching remaining pages concurrently source={} pages={}", source.getName(), lastPage);
+
+                List<CompletableFuture<PageResponse>> pendingPages = new ArrayList<>(lastPage - 1);
+                for (int page = 2; page <= lastPage; page++) {
+                    final int pageNumber = page;
+                    pendingPages.add(CompletableFuture.supplyAsync(() -> fetchPage(source, pageNumber), fetchExecutor));
+                }
+
+                try {
+                    // Join in page order so the merged list keeps GitHub's ordering
+                    for (int i = 0; i < pendingPages.size(); i++) {
+                        PageResponse response = pendingPages.get(i).join();
+                        modified |= response.modified();
+                        addAll(repositoriesById, response.rows());
+                        addFetched(fetchedPages, i + 2, response);
+                    }
+                } catch (RuntimeException e) {
+                    pendingPages.forEach(pendingPage -> pendingPage.cancel(true));
+                    throw e;
+                }
+            }
+
+            return new SourceResult(source.getName(), new ArrayList<>(repositoriesById.values()), modified, lastPage,
+                    fetchedPages, null);
+        } catch (Exception e) {
+            Exception cause = e instanceof CompletionException && e.getCause() instanceof Exception inner ? inner : e;
+            log.warn("Fetching repositories failed source={} error={}", source.getName(), cause.toString());
+            return new SourceResult(source.getName(), List.of(), false, 0, Map.of(), cause);
+        }
+    }
+
+    /**
+     * Caches the pages of the successful sources of {@code result}. To be called once their
+     * repositories are stored; a fetch that is never committed leaves the cache as it was.
+     */
+    public void commit(FetchResult result) {
+        for (SourceResult source : result.sources()) {
+            if (!source.isSuccessful()) {
+                continue;
+            }
+            source.pages().forEach((page, cached) -> pageCache.put(new PageKey(source.source(), page), cached));
+            pageCache.keySet().removeIf(key -> key.source().equals(source.source()) && key.page() > source.lastPage());
+            pageCountBySource.put(source.source(), source.lastPage());
+        }
+    }
+
+    private PageResponse fetchPage(Source source, int page) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + source.getToken());
+        headers.set("Accept", "application/json");
+        headers.set("User-Agent", "GitHub-Repo-Dashboard");
+
+        PageKey pageKey = new PageKey(source.getName(), page);
+        CachedPage cached = pageCache.get(pageKey);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        }
+
+        // Sort by name rather than by update time so that a repository updated while the pages
+        // are in flight cannot shift between pages and be skipped or returned twice
+        String url = baseUrl + source.getRepositoriesPath() + "&sort=full_name&per_page=" + pageSize + "&page=" + page;
+
+        return requestBudget.execute(() -> {
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                PageResponse pageResponse = restTemplate.execute(url, HttpMethod.GET,
+                        request -> request.getHeaders().putAll(headers),
+                        response -> {
+                            HttpHeaders responseHeaders = response.getHeaders();
+                            rateLimitTracker.update(source.getName(), responseHeaders);
+
+                            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached != null) {
+                                return new PageResponse(cached.rows(), cached.lastPage(), null);
+                            }
+
+                            List<Repository> rows = new ArrayList<>(pageSize);
+                            CountingInputStream body = new CountingInputStream(response.getBody());
+                            repositoryReader.read(body, rows::add);
+                            metrics.recordBytesReceived(source.getName(), body.count);
+                            metrics.recordRepositoriesConverted(source.getName(), rows.size());
+
+                            int lastPage = parseLastPage(responseHeaders.getFirst(HttpHeaders.LINK));
+                            return new PageResponse(rows, lastPage, new CachedPage(
+                                    responseHeaders.getETag(),
+                                    responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED),
+                                    lastPage,
+                                    rows));
+                        });
+                outcome = pageResponse.modified() ? "ok" : "not_modified";
+                return pageResponse;
+            } catch (HttpStatusCodeException e) {
+                if (e.getResponseHeaders() != null) {
+                    rateLimitTracker.update(source.getName(), e.getResponseHeaders());
+                }
+                throw e;
+            } finally {
+                metrics.recordGitHubRequest(source.getName(), outcome, System.nanoTime() - start);
+            }
+        });
+    }
+
+    static int parseLastPage(String linkHeader) {
+        if (linkHeader == null || linkHeader.isEmpty()) {
+            return 1;
+        }
+        Matcher lastLink = LAST_LINK.matcher(linkHeader);
+        if (!lastLink.find()) {
+            return 1;
+        }
+        Matcher page = PAGE_PARAM.matcher(lastLink.group(1));
+        return page.find() ? Integer.parseInt(page.group(1)) : 1;
+    }
+
+    private static void addFetched(Map<Integer, CachedPage> fetchedPages, int page, PageResponse response) {
+        if (response.fetched() != null) {
+            fetchedPages.put(page, response.fetched());
+        }
+    }
+
+    private static void addAll(Map<Long, Repository> repositoriesById, List<Repository> page) {
+        for (Repository repository : page) {
+            repositoriesById.putIfAbsent(repository.getId(), repository);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.github.repodashboard.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.GitHubRepository;
+import com.github.repodashboard.model.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Turns GitHub repository JSON into {@link Repository} rows.
+ *
+ * <p>Response bodies are read straight off the token stream: only the fields we keep are
+ * materialized, everything else (owner, permissions, licence, dozens of URLs) is skipped without
+ * being built, and each repository is handed to the caller as soon as its closing brace is read.
+ * Neither the raw body nor a full object graph of the page is ever held in memory.
+ *
+ * <p>Timestamps and languages are decoded from the parser's character buffer in place: timestamps
+ * by {@link GitHubTimestamps}, languages through a shared {@link ValueDictionary}, so neither
+ * allocates an intermediate {@code String} and all rows with the same language share one instance.
+ */
+@Component
+public class GitHubRepositoryReader {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubRepositoryReader.class);
+    private static final String UNKNOWN_LANGUAGE = "Unknown";
+
+    private final JsonFactory jsonFactory;
+    private final ValueDictionary languages;
+
+    public GitHubRepositoryReader(ObjectMapper objectMapper,
+                                  @Value("${github.sync.max-languages:4096}") int maxLanguages) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.languages = new ValueDictionary(maxLanguages);
+        this.languages.intern(UNKNOWN_LANGUAGE);
+    }
+
+    /**
+     * Reads a JSON array of repositories, passing each converted row to {@code sink} in document order.
+     *
+     * @return the number of repositories read
+     */
+    public int read(InputStream body, Consumer<Repository> sink) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of repositories");
+            }
+
+            CharSlice text = new CharSlice();
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(readRepository(parser, text));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Converts an already bound payload, e.g. the repository object of a webhook delivery.
+     */
+    public Repository convert(GitHubRepository githubRepo) {
+        Repository repo = newRepository();
+        repo.setId(githubRepo.getId());
+        repo.setName(githubRepo.getName());
+        repo.setFullName(githubRepo.getFullName());
+        repo.setDescription(githubRepo.getDescription());
+        repo.setHtmlUrl(githubRepo.getHtmlUrl());
+        if (githubRepo.getStargazersCount() != null) {
+            repo.setStargazersCount(githubRepo.getStargazersCount());
+        }
+        if (githubRepo.getForksCount() != null) {
+            repo.setForksCount(githubRepo.getForksCount());
+        }
+        if (githubRepo.getLanguage() != null) {
+            repo.setLanguage(languages.intern(githubRepo.getLanguage()));
+        }
+        if (githubRepo.getIsPrivate() != null) {
+            repo.setIsPrivate(githubRepo.getIsPrivate());
+        }
+        if (githubRepo.getFork() != null) {
+            repo.setIsFork(githubRepo.getFork());
+        }
+        if (githubRepo.getCreatedAt() != null) {
+            repo.setCreatedAt(parseTimestamp(githubRepo.getCreatedAt(), repo));
+        }
+        if (githubRepo.getUpdatedAt() != null) {
+            repo.setUpdatedAt(parseTimestamp(githubRepo.getUpdatedAt(), repo));
+        }
+        return complete(repo);
+    }
+
+    private Repository readRepository(JsonParser parser, CharSlice text) throws IOException {
+        Repository repo = newRepository();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "id" -> {
+                    if (isInteger(parser)) {
+                        repo.setId(parser.getLongValue());
+                    }
+                }
+                case "name" -> repo.setName(text(parser));
+                case "full_name" -> repo.setFullName(text(parser));
+                case "description" -> repo.setDescription(text(parser));
+                case "html_url" -> repo.setHtmlUrl(text(parser));
+                case "stargazers_count" -> {
+                    if (isInteger(parser)) {
+                        repo.setStargazersCount(parser.getIntValue());
+                    }
+                }
+                case "forks_count" -> {
+                    if (isInteger(parser)) {
+                        repo.setForksCount(parser.getIntValue());
+                    }
+                }
+                case "language" -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        repo.setLanguage(languages.intern(text.wrap(parser)));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "created_at" -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        repo.setCreatedAt(parseTimestamp(text.wrap(parser), repo));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "updated_at" -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        repo.setUpdatedAt(parseTimestamp(text.wrap(parser), repo));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "private" -> {
+                    if (isBoolean(parser)) {
+                        repo.setIsPrivate(parser.getBooleanValue());
+                    }
+                }
+                case "fork" -> {
+                    if (isBoolean(parser)) {
+                        repo.setIsFork(parser.getBooleanValue());
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return complete(repo);
+    }
+
+    private static Repository newRepository() {
+        Repository repo = new Repository();
+        repo.setStargazersCount(0);
+        repo.setForksCount(0);
+        repo.setLanguage(UNKNOWN_LANGUAGE);
+        repo.setIsPrivate(false);
+        repo.setIsFork(false);
+        return repo;
+    }
+
+    /**
+     * Fills timestamps the payload did not carry (or carried unparseable), so rows satisfy the
+     * not-null columns: a missing creation time falls back to the update time and vice versa.
+     */
+    private static Repository complete(Repository repo) {
+        if (repo.getCreatedAt() == null && repo.getUpdatedAt() == null) {
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            repo.setCreatedAt(now);
+            repo.setUpdatedAt(now);
+        } else if (repo.getCreatedAt() == null) {
+            repo.setCreatedAt(repo.getUpdatedAt());
+        } else if (repo.getUpdatedAt() == null) {
+            repo.setUpdatedAt(repo.getCreatedAt());
+        }
+        return repo;
+    }
+
+    private static LocalDateTime parseTimestamp(CharSequence value, Repository repo) {
+        try {
+            return GitHubTimestamps.parseUtc(value);
+        } catch (DateTimeException e) {
+            log.warn("Ignoring unparseable timestamp repository={} value={} error={}", repo.getId(), value, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    private static boolean isInteger(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+
+    private static boolean isBoolean(JsonParser parser) throws IOException {
+        if (parser.currentToken().isBoolean()) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+
+    /**
+     * Reusable view over the parser's current text buffer, valid until the next token is read.
+     */
+    private static final class CharSlice implements CharSequence {
+
+        private char[] buffer;
+        private int offset;
+        private int length;
+
+        CharSlice wrap(JsonParser parser) throws IOException {
+            buffer = parser.getTextCharacters();
+            offset = parser.getTextOffset();
+            length = parser.getTextLength();
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return buffer[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, offset, length);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.repodashboard.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Shared admission control for every GitHub API call made by the sync: a global cap on concurrent
+ * requests ({@code github.sync.max-concurrent-requests}) and a token bucket that allows bursts of
+ * {@code github.sync.request-burst} and refills at {@code github.sync.requests-per-second}.
+ * Callers block (cheaply, on virtual threads) until both admit them.
+ *
+ * <p>The rate is static: it smooths bursts within a sync and does not follow the remaining quota.
+ * Quota is spent by how often syncs run, which {@link RepositoryRefreshScheduler} stretches from
+ * the {@link GitHubRateLimitTracker}'s readings.
+ */
+@Component
+public class GitHubRequestBudget {
+
+    private final Semaphore concurrency;
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public GitHubRequestBudget(@Value("${github.sync.max-concurrent-requests:16}") int maxConcurrentRequests,
+                               @Value("${github.sync.request-burst:100}") int requestBurst,
+                               @Value("${github.sync.requests-per-second:10}") double requestsPerSecond) {
+        this.concurrency = new Semaphore(Math.max(1, maxConcurrentRequests), true);
+        this.capacity = Math.max(1, requestBurst);
+        this.tokensPerNano = Math.max(0.001, requestsPerSecond) / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        try {
+            acquireToken();
+            concurrency.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for GitHub request budget", e);
+        }
+        try {
+            return call.get();
+        } finally {
+            concurrency.release();
+        }
+    }
+
+    private void acquireToken() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+                lastRefillNanos = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -1,177 +1,799 @@
 package com.github.repodashboard.service;
 
 import com.github.repodashboard.dto.GitHubRepository;
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.RepositoryStats;
+import com.github.repodashboard.dto.SyncResult;
 import com.github.repodashboard.model.Repository;
-import com.github.repodashboard.repository.RepositoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+/**
+ * Syncs the repositories from GitHub into the database and the published snapshot.
+ *
+ * <p>Syncs, enrichment passes and database seeding run on the single {@code repository-sync}
+ * thread. As a {@link SmartLifecycle} the service stops that thread before the context destroys
+ * any bean: queued work is skipped, and the task in progress may finish for up to
+ * {@code github.sync.shutdown-timeout-ms}, while the database and the change listeners it
+ * publishes to are still there.
+ */
 @Service
-public class GitHubService {
+public class GitHubService implements SmartInitializingSingleton, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubService.class);
+
+    // What a follower read back: the changed rows, or the whole table when those are not available
+    private record Reload(List<Repository> all, RepositoryReconciler.StoredChanges changes) {}
 
-    private final WebClient webClient;
-    private final RestTemplate restTemplate;
-    private final RepositoryRepository repositoryRepository;
-    private final String githubToken;
-    private final String baseUrl;
+    private final GitHubRepositoryFetcher repositoryFetcher;
+    private final GitHubRepositoryReader repositoryReader;
+    private final RepositoryReconciler repositoryReconciler;
+    private final RepositorySnapshotStore snapshotStore;
+    private final RepositorySearchIndex searchIndex;
+    private final RepositoryStatsEngine statsEngine;
+    private final RepositoryMetrics metrics;
+    private final RepositorySnapshotFile snapshotFile;
+    private final RepositoryHistoryStore historyStore;
+    private final RepositoryEnricher repositoryEnricher;
+    private final ClusterCoordinator clusterCoordinator;
+    private final int defaultSearchLimit;
+    private final long syncWaitTimeoutMs;
+    private final long coldStartWaitMs;
+    private final long coldStartBackoffMs;
+    private final long shutdownTimeoutMs;
+    private final Object writeLock = new Object();
+    private final Object syncMonitor = new Object();
+    private final ExecutorService syncExecutor;
+    // Guarded by syncMonitor, which also orders every submission to syncExecutor before its shutdown
+    private CompletableFuture<List<Repository>> inFlightSync;
+    // Guarded by syncMonitor: completed by the sync started once the in-flight one finishes
+    private CompletableFuture<List<Repository>> followUpSync;
+    private volatile boolean stopped;
+    private volatile boolean running;
+    private volatile Instant lastSyncAt;
+    // Until when cold-start reads serve the empty snapshot instead of waiting, after a sync loaded nothing
+    private volatile long coldStartRetryAt;
+    // False while the snapshot restored from disk has not been written to the database yet
+    private volatile boolean databaseSeeded = true;
+    // Page cache state as of the last sync, guarded by writeLock
+    private List<GitHubRepositoryFetcher.PageState> syncedPages = List.of();
+    // Shared data version the snapshot was loaded or written at when clustered, guarded by writeLock
+    private volatile long loadedDataVersion;
+    // Sync requests of other replicas already acted on, touched by the cluster poll only
+    private long handledSyncRequests;
 
     public GitHubService(@Value("${github.token}") String githubToken,
                         @Value("${github.api.base-url}") String baseUrl,
-                        RepositoryRepository repositoryRepository) {
-        this.githubToken = githubToken;
-        this.baseUrl = baseUrl;
-        this.repositoryRepository = repositoryRepository;
-        
-        System.out.println("Initializing GitHub service with base URL: " + baseUrl);
-        System.out.println("GitHub token configured: " + (githubToken != null && !githubToken.isEmpty()));
-        
-        this.webClient = WebClient.builder()
-                .baseUrl(baseUrl)
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + githubToken)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.USER_AGENT, "GitHub-Repo-Dashboard")
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(2 * 1024 * 1024)) // 2MB buffer
-                .build();
-                
-        this.restTemplate = new RestTemplate();
+                        GitHubRepositoryFetcher repositoryFetcher,
+                        GitHubRepositoryReader repositoryReader,
+                        RepositoryReconciler repositoryReconciler,
+                        RepositorySnapshotStore snapshotStore,
+                        RepositorySearchIndex searchIndex,
+                        RepositoryStatsEngine statsEngine,
+                        RepositoryMetrics metrics,
+                        RepositorySnapshotFile snapshotFile,
+                        RepositoryHistoryStore historyStore,
+                        RepositoryEnricher repositoryEnricher,
+                        ClusterCoordinator clusterCoordinator,
+                        @Value("${search.default-limit:100}") int defaultSearchLimit,
+                        @Value("${github.sync.wait-timeout-ms:30000}") long syncWaitTimeoutMs,
+                        @Value("${github.sync.cold-start-wait-ms:10000}") long coldStartWaitMs,
+                        @Value("${github.sync.cold-start-backoff-ms:30000}") long coldStartBackoffMs,
+                        @Value("${github.sync.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        this.repositoryFetcher = repositoryFetcher;
+        this.repositoryReader = repositoryReader;
+        this.repositoryReconciler = repositoryReconciler;
+        this.snapshotStore = snapshotStore;
+        this.searchIndex = searchIndex;
+        this.statsEngine = statsEngine;
+        this.metrics = metrics;
+        this.snapshotFile = snapshotFile;
+        this.historyStore = historyStore;
+        this.repositoryEnricher = repositoryEnricher;
+        this.clusterCoordinator = clusterCoordinator;
+        this.defaultSearchLimit = defaultSearchLimit;
+        this.syncWaitTimeoutMs = syncWaitTimeoutMs;
+        this.coldStartWaitMs = coldStartWaitMs;
+        this.coldStartBackoffMs = coldStartBackoffMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repository-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.info("Initializing GitHub service baseUrl={} tokenConfigured={}",
+                baseUrl, githubToken != null && !githubToken.isEmpty());
+    }
+
+    /**
+     * Restores the snapshot persisted by the previous run, once every listener is registered and
+     * before the web server and the refresh scheduler start. The first scheduled refresh then
+     * revalidates it with conditional requests, while readers are already served.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        snapshotFile.read().ifPresent(this::restoreSnapshot);
+    }
+
+    private void restoreSnapshot(RepositorySnapshotFile.PersistedSnapshot persisted) {
+        if (clusterCoordinator.isEnabled()) {
+            // Clustered replicas load the shared database instead, so that they all serve the same data version
+            synchronized (writeLock) {
+                restoreHistory(persisted.history());
+            }
+            return;
+        }
+        Set<String> sourceNames = repositoryFetcher.getSourceNames();
+        Map<Long, Repository> repositoriesById = new LinkedHashMap<>();
+        for (Repository repository : persisted.repositories()) {
+            // Repositories of sources removed from the configuration would otherwise never be deleted
+            if (sourceNames.contains(repository.getSource())) {
+                repositoriesById.put(repository.getId(), repository);
+            }
+        }
+        if (persisted.version() <= 0 || repositoriesById.isEmpty()) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            if (snapshotStore.current().isLoaded()) {
+                return;
+            }
+            // Restored first, so the restored snapshot only prunes the history of filtered-out repositories
+            restoreHistory(persisted.history());
+            if (!snapshotStore.restore(persisted.epoch(), persisted.version(), repositoriesById.values())) {
+                return;
+            }
+            repositoryFetcher.restorePages(persisted.pages(), repositoriesById);
+            syncedPages = repositoryFetcher.exportPages();
+            lastSyncAt = persisted.syncedAt();
+            databaseSeeded = false;
+        }
+        log.info("Serving repository snapshot restored from disk version={} repositories={} syncedAt={} age={}",
+                persisted.version(), repositoriesById.size(), persisted.syncedAt(),
+                persisted.syncedAt() != null ? Duration.between(persisted.syncedAt(), Instant.now()) : null);
+
+        // Queued ahead of the first scheduled refresh, which runs on the same thread
+        submit(() -> {
+            try {
+                seedDatabase();
+            } catch (RuntimeException e) {
+                log.warn("Seeding the database from the restored snapshot failed, retrying with the next sync", e);
+            }
+        });
+    }
+
+    private void restoreHistory(byte[] history) {
+        if (history == null) {
+            return;
+        }
+        try {
+            if (!historyStore.restore(history)) {
+                log.info("Ignoring repository history of an unknown format");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable repository history", e);
+        }
+    }
+
+    /**
+     * Writes the restored snapshot to the database so that later syncs and deltas diff against the
+     * same state the snapshot holds.
+     */
+    private void seedDatabase() {
+        synchronized (writeLock) {
+            if (databaseSeeded) {
+                return;
+            }
+            List<Repository> repositories = snapshotStore.current().getRepositories();
+            Set<String> sources = repositories.stream()
+                    .map(Repository::getSource)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            // The change set is relative to the database, not to the already published snapshot, so it is not published
+            SyncResult seedResult = metrics.timeDatabaseWrite("reconcile",
+                    () -> repositoryReconciler.reconcile(repositories, sources));
+            databaseSeeded = true;
+            log.info("Seeded database from restored snapshot inserted={} updated={} deleted={} unchanged={}",
+                    seedResult.inserted(), seedResult.updated(), seedResult.deleted(), seedResult.unchanged());
+        }
+    }
+
+    /**
+     * When the last sync that reached GitHub completed, or {@code null} if none has yet.
+     */
+    public Instant getLastSyncAt() {
+        return lastSyncAt;
     }
 
     public List<Repository> getAllRepositories() {
-        List<Repository> cachedRepos = repositoryRepository.findAll();
-        if (cachedRepos.isEmpty()) {
-            return fetchAndCacheRepositories();
+        return getSnapshot().getRepositories();
+    }
+
+    /**
+     * The current read snapshot, loading it from GitHub first if no sync has completed yet.
+     * Concurrent cold-start callers share one fetch and wait at most
+     * {@code github.sync.cold-start-wait-ms} for it, falling back to the (empty) current snapshot.
+     * After a sync that could not reach any source, reads serve the empty snapshot right away for
+     * {@code github.sync.cold-start-backoff-ms} rather than each waiting for another attempt.
+     */
+    public RepositorySnapshot getSnapshot() {
+        RepositorySnapshot snapshot = snapshotStore.current();
+        if (!snapshot.isLoaded() && System.currentTimeMillis() >= coldStartRetryAt) {
+            awaitSync(startOrJoinSync(), coldStartWaitMs);
+            snapshot = snapshotStore.current();
         }
-        return cachedRepos;
+        return snapshot;
     }
 
+    /**
+     * Runs a sync that starts after this call and waits at most {@code github.sync.wait-timeout-ms}
+     * for its result. A sync already in flight may have fetched the affected pages before the change
+     * that prompted the refresh, so callers arriving while it runs share one more sync after it.
+     */
     public List<Repository> fetchAndCacheRepositories() {
+        if (!clusterCoordinator.isLeader()) {
+            requestLeaderSync();
+        }
+        return awaitSync(startFreshSync(), syncWaitTimeoutMs);
+    }
+
+    /**
+     * Whether this instance syncs and writes, rather than following another replica's writes.
+     */
+    public boolean isSyncLeader() {
+        return clusterCoordinator.isLeader();
+    }
+
+    private List<Repository> awaitSync(CompletableFuture<List<Repository>> sync, long timeoutMs) {
+        try {
+            return sync.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.info("Repository sync still running after {}ms, serving current snapshot", timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Repository sync failed", e.getCause());
+        }
+        return snapshotStore.current().getRepositories();
+    }
+
+    /**
+     * Single-flight entry point for the sync pipeline: at most one sync runs at a time, on the
+     * dedicated sync thread, and every caller arriving while it runs shares its result.
+     */
+    private CompletableFuture<List<Repository>> startOrJoinSync() {
+        synchronized (syncMonitor) {
+            if (inFlightSync != null) {
+                return inFlightSync;
+            }
+            if (stopped) {
+                return CompletableFuture.completedFuture(snapshotStore.current().getRepositories());
+            }
+            CompletableFuture<List<Repository>> sync = CompletableFuture.supplyAsync(this::runSyncPipeline, syncExecutor);
+            inFlightSync = sync;
+            // Runs inline when the sync has already completed, clearing the field again before we return
+            sync.whenComplete((repositories, error) -> {
+                synchronized (syncMonitor) {
+                    if (inFlightSync == sync) {
+                        inFlightSync = null;
+                    }
+                    CompletableFuture<List<Repository>> followUp = followUpSync;
+                    followUpSync = null;
+                    if (followUp != null) {
+                        startOrJoinSync().whenComplete((next, nextError) -> {
+                            if (nextError != null) {
+                                followUp.completeExceptionally(nextError);
+                            } else {
+                                followUp.complete(next);
+                            }
+                        });
+                    }
+                }
+            });
+            return sync;
+        }
+    }
+
+    /**
+     * Like {@link #startOrJoinSync()}, but never returns a sync that started before this call: while
+     * one is in flight, every caller shares a single follow-up sync that starts when it finishes.
+     */
+    private CompletableFuture<List<Repository>> startFreshSync() {
+        synchronized (syncMonitor) {
+            if (inFlightSync == null) {
+                return startOrJoinSync();
+            }
+            if (followUpSync == null) {
+                followUpSync = new CompletableFuture<>();
+            }
+            return followUpSync;
+        }
+    }
+
+    private List<Repository> runSyncPipeline() {
+        if (stopped) {
+            return snapshotStore.current().getRepositories();
+        }
+        if (!clusterCoordinator.isLeader()) {
+            try {
+                return reloadFromDatabase();
+            } catch (RuntimeException e) {
+                log.warn("Reloading repositories from the shared database failed", e);
+                return snapshotStore.current().getRepositories();
+            }
+        }
+        long start = System.nanoTime();
+        String outcome = "failed";
         try {
-            System.out.println("Fetching repositories from GitHub API using RestTemplate...");
-            
-            // Set up headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + githubToken);
-            headers.set("Accept", "application/json");
-            headers.set("User-Agent", "GitHub-Repo-Dashboard");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            // Make the request
-            String url = baseUrl + "/user/repos?type=all&sort=updated&per_page=100";
-            System.out.println("Making request to: " + url);
-            
-            ResponseEntity<GitHubRepository[]> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                entity,
-                GitHubRepository[].class
-            );
-
-            GitHubRepository[] githubReposArray = response.getBody();
-            List<GitHubRepository> githubRepos = githubReposArray != null ? 
-                List.of(githubReposArray) : List.of();
-
-            System.out.println("Received " + githubRepos.size() + " repositories from GitHub");
-
-            if (!githubRepos.isEmpty()) {
-                System.out.println("Converting repositories...");
-                List<Repository> repositories = githubRepos.stream()
-                        .map(this::convertToRepository)
-                        .collect(Collectors.toList());
-
-                System.out.println("Converted " + repositories.size() + " repositories, saving to database...");
-                repositoryRepository.deleteAll();
-                repositoryRepository.saveAll(repositories);
-                System.out.println("Successfully saved repositories to database");
-                return repositories;
+            seedDatabase();
+            catchUpWithDatabase();
+            log.debug("Fetching repositories from GitHub API");
+            GitHubRepositoryFetcher.FetchResult fetchResult = repositoryFetcher.fetchAllRepositories();
+            if (!fetchResult.modified()) {
+                repositoryFetcher.commit(fetchResult);
+                lastSyncAt = Instant.now();
+                clusterCoordinator.recordSync(lastSyncAt);
+                outcome = "not_modified";
+                log.debug("Repositories not modified since last fetch, skipping database update");
+                return snapshotStore.current().getRepositories();
+            }
+
+            // Collected in full: the reconciler needs every fetched id to tell deletions apart, and the
+            // snapshot is built from the same rows, which the fetcher's page cache also holds on to
+            List<Repository> repositories = new ArrayList<>();
+            Set<Long> seenIds = new HashSet<>();
+            Set<String> syncedSources = new HashSet<>();
+            for (GitHubRepositoryFetcher.SourceResult sourceResult : fetchResult.sources()) {
+                if (!sourceResult.isSuccessful()) {
+                    continue;
+                }
+                syncedSources.add(sourceResult.source());
+                // A repository visible through several sources is attributed to the first one listed
+                for (Repository repository : sourceResult.repositories()) {
+                    if (seenIds.add(repository.getId())) {
+                        repository.setSource(sourceResult.source());
+                        repositories.add(repository);
+                    }
+                }
+            }
+
+            log.debug("Received repositories count={} sources={} configuredSources={}",
+                    repositories.size(), syncedSources.size(), fetchResult.sources().size());
+
+            // A source that succeeded with no repositories is synced too, so an empty account loads an empty snapshot
+            if (!syncedSources.isEmpty()) {
+                synchronized (writeLock) {
+                    carryOverDetails(repositories, snapshotStore.current());
+                    ClusterCoordinator.Versioned<SyncResult> write = metrics.timeDatabaseWrite("reconcile",
+                            () -> clusterCoordinator.write(snapshotStore.current().getVersion(),
+                                    () -> repositoryReconciler.reconcile(repositories, syncedSources), SyncResult::hasChanges,
+                                    this::recordChanges));
+                    SyncResult syncResult = write.value();
+                    metrics.recordSyncChanges(syncResult.inserted(), syncResult.updated(), syncResult.deleted());
+                    boolean partial = syncedSources.size() < fetchResult.sources().size();
+                    outcome = partial ? "partial" : syncResult.hasChanges() ? "changed" : "unchanged";
+                    log.info("Repository sync complete inserted={} updated={} deleted={} unchanged={} sources={}/{} durationMs={}",
+                            syncResult.inserted(), syncResult.updated(), syncResult.deleted(), syncResult.unchanged(),
+                            syncedSources.size(), fetchResult.sources().size(), (System.nanoTime() - start) / 1_000_000);
+
+                    RepositorySnapshot snapshot = snapshotStore.current();
+                    if (syncResult.hasChanges() || !snapshot.isLoaded()) {
+                        // Sources that failed this time keep the repositories we already had for them;
+                        // appended in place, since the reconciler is done with the fetched list
+                        for (Repository retained : snapshot.getRepositories()) {
+                            boolean retainedSourceFailed = retained.getSource() != null && !syncedSources.contains(retained.getSource());
+                            if (retainedSourceFailed && seenIds.add(retained.getId())) {
+                                repositories.add(retained);
+                            }
+                        }
+                        snapshot = publish(write.epoch(), write.dataVersion(), repositories, syncResult.changes());
+                    }
+                    // Only now that the rows are stored and published do the new page ETags replace the old ones
+                    repositoryFetcher.commit(fetchResult);
+                    lastSyncAt = Instant.now();
+                    clusterCoordinator.recordSync(lastSyncAt);
+                    // The page cache matches the data now, since no fetch runs while the sync holds the lock
+                    syncedPages = repositoryFetcher.exportPages();
+                    // Even an unchanged sync may have refreshed page ETags worth keeping
+                    snapshotFile.requestWrite(this::persistedSnapshot);
+                    return snapshot.getRepositories();
+                }
             } else {
-                System.out.println("No repositories received from GitHub API");
+                log.warn("No source could be synced from GitHub API sources=0/{}", fetchResult.sources().size());
             }
         } catch (Exception e) {
-            System.err.println("Error fetching repositories from GitHub: " + e.getClass().getName() + " - " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error syncing repositories from GitHub", e);
+        } finally {
+            metrics.recordSync(outcome, System.nanoTime() - start);
+            if (!snapshotStore.current().isLoaded()) {
+                coldStartRetryAt = System.currentTimeMillis() + coldStartBackoffMs;
+            }
+            // Queued behind this sync on the sync thread, so it never overlaps one and delays no caller
+            if (clusterCoordinator.isLeader() && repositoryEnricher.hasPending()) {
+                submit(this::runEnrichment);
+            }
+        }
+
+        return snapshotStore.current().getRepositories();
+    }
+
+    /**
+     * The list endpoint carries no enriched details. A fetched row the reconciler will consider
+     * unchanged is replaced by the published row, which has them; a changed row takes over the
+     * published row's details until it is enriched again.
+     */
+    private static void carryOverDetails(List<Repository> fetched, RepositorySnapshot snapshot) {
+        for (ListIterator<Repository> rows = fetched.listIterator(); rows.hasNext(); ) {
+            Repository repository = rows.next();
+            Repository previous = snapshot.getRepository(repository.getId());
+            if (previous == null || previous == repository) {
+                continue;
+            }
+            if (Objects.equals(previous.getUpdatedAt(), repository.getUpdatedAt())
+                    && Objects.equals(previous.getSource(), repository.getSource())) {
+                rows.set(previous);
+            } else if (repository.getEnrichedAt() == null) {
+                repository.copyDetailsFrom(previous);
+            }
+        }
+    }
+
+    /**
+     * Fetches the details of pending repositories and publishes the enriched rows as updates.
+     */
+    private void runEnrichment() {
+        if (stopped) {
+            return;
+        }
+        try {
+            RepositoryEnricher.EnrichmentResult result = repositoryEnricher.enrichPending(snapshotStore.current());
+            if (result.details().isEmpty()) {
+                return;
+            }
+            synchronized (writeLock) {
+                catchUpWithDatabase();
+                RepositorySnapshot snapshot = snapshotStore.current();
+                List<Repository> enriched = new ArrayList<>(result.details().size());
+                result.details().forEach((id, details) -> {
+                    Repository current = snapshot.getRepository(id);
+                    // Rows updated or removed while their details were fetched are left to the next pass
+                    if (current != null && Objects.equals(current.getUpdatedAt(), details.updatedAt())) {
+                        Repository copy = new Repository(current);
+                        details.applyTo(copy);
+                        enriched.add(copy);
+                    }
+                });
+                if (enriched.isEmpty()) {
+                    return;
+                }
+                seedDatabase();
+                ClusterCoordinator.Versioned<Integer> write = metrics.timeDatabaseWrite("enrichment",
+                        () -> clusterCoordinator.write(snapshot.getVersion(),
+                                () -> repositoryReconciler.applyDetails(enriched), written -> written > 0,
+                                (written, dataVersion) -> repositoryReconciler.recordChanges(dataVersion,
+                                        enriched.stream().map(Repository::getId).toList(), List.of())));
+
+                Map<Long, Repository> merged = new LinkedHashMap<>();
+                snapshot.getRepositories().forEach(repository -> merged.put(repository.getId(), repository));
+                enriched.forEach(repository -> merged.put(repository.getId(), repository));
+                publish(write.epoch(), write.dataVersion(), merged.values(), new RepositoryChangeSet(List.of(), enriched, List.of()));
+                snapshotFile.requestWrite(this::persistedSnapshot);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Repository enrichment failed, retrying after the next sync", e);
+        }
+    }
+
+    /**
+     * Applies repository changes that arrived without a full refetch, e.g. from a webhook payload.
+     * Ignored until the first full sync has loaded the snapshot, since that sync will include them.
+     */
+    public SyncResult applyRepositoryDelta(List<GitHubRepository> upserted, List<Long> removedIds) {
+        List<Repository> upserts = upserted.stream()
+                .map(repositoryReader::convert)
+                .collect(Collectors.toList());
+
+        synchronized (writeLock) {
+            catchUpWithDatabase();
+            RepositorySnapshot snapshot = snapshotStore.current();
+            if (!snapshot.isLoaded()) {
+                return new SyncResult(RepositoryChangeSet.empty(), 0);
+            }
+            seedDatabase();
+            for (Repository repository : upserts) {
+                Repository existing = snapshot.getRepository(repository.getId());
+                repository.setSource(existing != null ? existing.getSource() : repositoryFetcher.getPrimarySourceName());
+            }
+            carryOverDetails(upserts, snapshot);
+
+            ClusterCoordinator.Versioned<SyncResult> write = metrics.timeDatabaseWrite("delta",
+                    () -> clusterCoordinator.write(snapshot.getVersion(),
+                            () -> repositoryReconciler.applyDelta(upserts, removedIds), SyncResult::hasChanges,
+                            this::recordChanges));
+            SyncResult syncResult = write.value();
+            if (syncResult.hasChanges()) {
+                Map<Long, Repository> merged = new LinkedHashMap<>();
+                snapshot.getRepositories().forEach(repository -> merged.put(repository.getId(), repository));
+                syncResult.changes().removed().forEach(merged::remove);
+                syncResult.changes().updated().forEach(repository -> merged.put(repository.getId(), repository));
+                syncResult.changes().added().forEach(repository -> merged.put(repository.getId(), repository));
+                publish(write.epoch(), write.dataVersion(), merged.values(), syncResult.changes());
+                // Persist deltas too, so a restarted instance never reuses a version number for other data
+                snapshotFile.requestWrite(this::persistedSnapshot);
+            }
+            return syncResult;
+        }
+    }
+
+    /**
+     * Publishes a snapshot this instance wrote, under the data epoch and version its write advanced
+     * to. Must be called holding writeLock.
+     */
+    private RepositorySnapshot publish(String epoch, long dataVersion, Collection<Repository> repositories,
+                                       RepositoryChangeSet changes) {
+        if (dataVersion > 0) {
+            loadedDataVersion = dataVersion;
+        }
+        return snapshotStore.publish(epoch, dataVersion, repositories, changes);
+    }
+
+    /**
+     * Follows the leader of a cluster: runs a sync when this replica just became leader or another
+     * replica asked for one, and otherwise reloads when the leader's writes advanced the data.
+     */
+    @EventListener
+    public void onClusterState(ClusterStateEvent event) {
+        if (event.leader()) {
+            if (event.leadershipChanged() || event.syncRequests() > handledSyncRequests) {
+                handledSyncRequests = event.syncRequests();
+                // Catches up with the previous leader's last write first
+                startOrJoinSync();
+            }
+            return;
+        }
+        if (event.syncedAt() != null) {
+            lastSyncAt = event.syncedAt();
+        }
+        if (event.dataVersion() > loadedDataVersion) {
+            startOrJoinSync();
+        }
+    }
+
+    private void requestLeaderSync() {
+        try {
+            clusterCoordinator.requestSync();
+        } catch (RuntimeException e) {
+            log.warn("Requesting a sync from the cluster leader failed", e);
+        }
+    }
+
+    /**
+     * Makes a replica that just became leader load the previous leader's last write before it
+     * writes itself, since its changes are diffed against the snapshot. Must be called holding
+     * writeLock.
+     */
+    private void catchUpWithDatabase() {
+        if (clusterCoordinator.isEnabled() && loadedDataVersion < clusterCoordinator.dataVersion()) {
+            reloadFromDatabase();
+        }
+    }
+
+    /**
+     * Replaces the snapshot with what the leader last wrote to the shared database, if that is
+     * newer than what this replica serves. Rows that did not change keep their published instance.
+     */
+    private List<Repository> reloadFromDatabase() {
+        long start = System.nanoTime();
+        synchronized (writeLock) {
+            RepositorySnapshot snapshot = snapshotStore.current();
+            long loadedVersion = loadedDataVersion;
+            Optional<ClusterCoordinator.Versioned<Reload>> read = clusterCoordinator.readIfNewer(loadedVersion,
+                    (epoch, dataVersion) -> {
+                        if (loadedVersion > 0 && snapshot.isLoaded() && epoch.equals(snapshot.getEpoch())) {
+                            Optional<RepositoryReconciler.StoredChanges> changes =
+                                    repositoryReconciler.loadChanges(loadedVersion, dataVersion);
+                            if (changes.isPresent()) {
+                                return new Reload(null, changes.get());
+                            }
+                        }
+                        return new Reload(repositoryReconciler.loadAll(), null);
+                    });
+            if (read.isEmpty()) {
+                return snapshotStore.current().getRepositories();
+            }
+            Reload reload = read.get().value();
+            List<Repository> added = new ArrayList<>();
+            List<Repository> updated = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            Collection<Repository> repositories;
+            if (reload.changes() != null) {
+                Map<Long, Repository> merged = new LinkedHashMap<>();
+                snapshot.getRepositories().forEach(repository -> merged.put(repository.getId(), repository));
+                for (Long id : reload.changes().removed()) {
+                    if (merged.remove(id) != null) {
+                        removed.add(id);
+                    }
+                }
+                for (Repository repository : reload.changes().written()) {
+                    (merged.put(repository.getId(), repository) == null ? added : updated).add(repository);
+                }
+                repositories = merged.values();
+            } else {
+                List<Repository> all = reload.all();
+                Set<Long> loadedIds = new HashSet<>();
+                for (ListIterator<Repository> rows = all.listIterator(); rows.hasNext(); ) {
+                    Repository repository = rows.next();
+                    loadedIds.add(repository.getId());
+                    Repository previous = snapshot.getRepository(repository.getId());
+                    if (previous == null) {
+                        added.add(repository);
+                    } else if (Objects.equals(previous.getUpdatedAt(), repository.getUpdatedAt())
+                            && Objects.equals(previous.getSource(), repository.getSource())
+                            && Objects.equals(previous.getEnrichedAt(), repository.getEnrichedAt())) {
+                        rows.set(previous);
+                    } else {
+                        updated.add(repository);
+                    }
+                }
+                snapshot.getRepositories().stream()
+                        .map(Repository::getId)
+                        .filter(id -> !loadedIds.contains(id))
+                        .forEach(removed::add);
+                repositories = all;
+            }
+
+            long dataVersion = read.get().dataVersion();
+            loadedDataVersion = dataVersion;
+            RepositorySnapshot reloaded = snapshotStore.publish(read.get().epoch(), dataVersion, repositories,
+                    new RepositoryChangeSet(added, updated, removed));
+            metrics.recordSync("reloaded", System.nanoTime() - start);
+            log.info("Reloaded repositories from the shared database dataVersion={} incremental={} added={} updated={} removed={} durationMs={}",
+                    dataVersion, reload.changes() != null, added.size(), updated.size(), removed.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            // Keeps this replica's star/fork history across restarts
+            snapshotFile.requestWrite(this::persistedSnapshot);
+            return reloaded.getRepositories();
         }
-        
-        return repositoryRepository.findAll();
     }
 
-    @Scheduled(fixedRate = 300000) // Refresh every 5 minutes
+    /**
+     * Records the rows a clustered write touched under the data version it advanced to, in its
+     * transaction, so followers can read back just those.
+     */
+    private void recordChanges(SyncResult result, long dataVersion) {
+        RepositoryChangeSet changes = result.changes();
+        List<Long> written = new ArrayList<>(changes.added().size() + changes.updated().size());
+        changes.added().forEach(repository -> written.add(repository.getId()));
+        changes.updated().forEach(repository -> written.add(repository.getId()));
+        repositoryReconciler.recordChanges(dataVersion, written, changes.removed());
+    }
+
+    private RepositorySnapshotFile.PersistedSnapshot persistedSnapshot() {
+        synchronized (writeLock) {
+            RepositorySnapshot snapshot = snapshotStore.current();
+            return new RepositorySnapshotFile.PersistedSnapshot(snapshot.getEpoch(), snapshot.getVersion(), lastSyncAt,
+                    snapshot.getRepositories(), syncedPages, historyStore.export());
+        }
+    }
+
+    // Scheduled by RepositoryRefreshScheduler, which adapts the interval to the GitHub rate limit
     public void scheduledRepositoryRefresh() {
-        System.out.println("Scheduled refresh of repositories...");
-        fetchAndCacheRepositories();
+        if (!clusterCoordinator.isLeader()) {
+            // Followers reload when the leader's writes advance the shared data version
+            return;
+        }
+        log.debug("Scheduled refresh of repositories");
+        startOrJoinSync().join();
     }
 
     public List<Repository> searchRepositories(String searchTerm) {
+        return searchRepositories(searchTerm, defaultSearchLimit);
+    }
+
+    public List<Repository> searchRepositories(String searchTerm, int limit) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllRepositories();
         }
-        return repositoryRepository.findBySearchTerm(searchTerm.trim());
+        RepositorySnapshot snapshot = getSnapshot();
+        return searchIndex.search(searchTerm, limit).stream()
+                .map(snapshot::getRepository)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public List<Repository> filterByLanguage(String language) {
         if (language == null || language.trim().isEmpty()) {
             return getAllRepositories();
         }
-        return repositoryRepository.findByLanguage(language);
+        return getSnapshot().getRepositoriesByLanguage(language);
     }
 
     public List<String> getAvailableLanguages() {
-        return repositoryRepository.findDistinctLanguages();
-    }
-
-    private Repository convertToRepository(GitHubRepository githubRepo) {
-        Repository repo = new Repository();
-        repo.setId(githubRepo.getId());
-        repo.setName(githubRepo.getName());
-        repo.setFullName(githubRepo.getFullName());
-        repo.setDescription(githubRepo.getDescription());
-        repo.setHtmlUrl(githubRepo.getHtmlUrl());
-        repo.setStargazersCount(githubRepo.getStargazersCount() != null ? githubRepo.getStargazersCount() : 0);
-        repo.setForksCount(githubRepo.getForksCount() != null ? githubRepo.getForksCount() : 0);
-        repo.setLanguage(githubRepo.getLanguage() != null ? githubRepo.getLanguage() : "Unknown");
-        repo.setIsPrivate(githubRepo.getIsPrivate() != null ? githubRepo.getIsPrivate() : false);
-        repo.setIsFork(githubRepo.getFork() != null ? githubRepo.getFork() : false);
-
-        // Parse ISO date strings to LocalDateTime (removing Z timezone indicator)
-        try {
-            String createdAtStr = githubRepo.getCreatedAt();
-            String updatedAtStr = githubRepo.getUpdatedAt();
-            
-            if (createdAtStr != null) {
-                createdAtStr = createdAtStr.replace("Z", "");
-                repo.setCreatedAt(LocalDateTime.parse(createdAtStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            } else {
-                repo.setCreatedAt(LocalDateTime.now());
+        return getSnapshot().getLanguages();
+    }
+
+    public RepositoryStats getRepositoryStats() {
+        return getVersionedRepositoryStats().stats();
+    }
+
+    public RepositoryStatsEngine.VersionedStats getVersionedRepositoryStats() {
+        getSnapshot();
+        return statsEngine.currentVersioned();
+    }
+
+    /**
+     * Queues a task on the sync thread, unless the service has stopped.
+     */
+    private void submit(Runnable task) {
+        synchronized (syncMonitor) {
+            if (!stopped) {
+                syncExecutor.execute(task);
             }
-            
-            if (updatedAtStr != null) {
-                updatedAtStr = updatedAtStr.replace("Z", "");
-                repo.setUpdatedAt(LocalDateTime.parse(updatedAtStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            } else {
-                repo.setUpdatedAt(LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Skips queued sync work and waits up to {@code github.sync.shutdown-timeout-ms} for the task in
+     * progress, without interrupting it in the middle of a database write.
+     */
+    @Override
+    public void stop() {
+        synchronized (syncMonitor) {
+            stopped = true;
+            syncExecutor.shutdown();
+        }
+        try {
+            if (!syncExecutor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Repository sync still running after {}ms, interrupting it", shutdownTimeoutMs);
+                syncExecutor.shutdownNow();
             }
-        } catch (Exception e) {
-            System.err.println("Error parsing dates for repo " + githubRepo.getName() + ": " + e.getMessage());
-            e.printStackTrace();
-            repo.setCreatedAt(LocalDateTime.now());
-            repo.setUpdatedAt(LocalDateTime.now());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            syncExecutor.shutdownNow();
         }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
 
-        return repo;
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.github.repodashboard.service;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Parser for the fixed-layout ISO-8601 timestamps GitHub returns, e.g. {@code 2024-03-01T12:34:56Z}.
+ *
+ * <p>Digits are read in place, without substrings, regex or formatter machinery; the returned
+ * {@link LocalDateTime} is the only allocation. Timestamps are normalized to UTC: a {@code Z} suffix
+ * or missing offset is taken as UTC, and an explicit {@code +HH:MM} / {@code -HH:MM} offset is
+ * applied instead of being dropped. An optional fraction of up to nine digits is kept.
+ */
+public final class GitHubTimestamps {
+
+    private static final int DATE_TIME_LENGTH = 19;
+
+    private GitHubTimestamps() {}
+
+    /**
+     * @throws DateTimeException if {@code text} is not a timestamp in the layout above
+     */
+    public static LocalDateTime parseUtc(CharSequence text) {
+        int length = text.length();
+        if (length < DATE_TIME_LENGTH
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw invalid(text);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+
+        int position = DATE_TIME_LENGTH;
+        int nanos = 0;
+        if (position < length && text.charAt(position) == '.') {
+            position++;
+            int fractionDigits = 0;
+            while (position < length && isDigit(text.charAt(position))) {
+                if (fractionDigits < 9) {
+                    nanos = nanos * 10 + (text.charAt(position) - '0');
+                    fractionDigits++;
+                }
+                position++;
+            }
+            if (fractionDigits == 0) {
+                throw invalid(text);
+            }
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        int offsetSeconds = 0;
+        if (position < length) {
+            char designator = text.charAt(position);
+            if ((designator == 'Z' || designator == 'z') && position + 1 == length) {
+                offsetSeconds = 0;
+            } else if ((designator == '+' || designator == '-') && position + 6 == length
+                    && text.charAt(position + 3) == ':') {
+                int offsetHours = digits(text, position + 1, 2);
+                int offsetMinutes = digits(text, position + 4, 2);
+                if (offsetHours > 18 || offsetMinutes > 59) {
+                    throw invalid(text);
+                }
+                offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (designator == '-' ? -1 : 1);
+            } else {
+                throw invalid(text);
+            }
+        }
+
+        LocalDateTime local = LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        return offsetSeconds == 0 ? local : local.minusSeconds(offsetSeconds);
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                throw invalid(text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static DateTimeException invalid(CharSequence text) {
+        return new DateTimeException("Unsupported timestamp: " + text);
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+
+/**
+ * Published after a new {@link RepositorySnapshot} has been swapped in, so that derived read
+ * structures can apply the same changes incrementally.
+ */
+public record RepositoryChangeEvent(RepositorySnapshot previous, RepositorySnapshot current, RepositoryChangeSet changes) {}
@@ -0,0 +1,340 @@
+package com.github.repodashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.RepositoryDelta;
+import com.github.repodashboard.dto.RepositoryStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes snapshot changes to Server-Sent Events subscribers.
+ *
+ * <p>Every published snapshot becomes one event, serialized once and shared by all subscribers:
+ * a {@code delta} with the added, updated and removed repositories and the new stats, or a
+ * {@code reset} when the snapshot was rebuilt from scratch and clients must refetch. Event ids are
+ * snapshot epochs and versions ({@code <epoch>-<version>}), and the last
+ * {@code stream.history-size} events of the current epoch are kept in a ring buffer so a
+ * reconnecting client (which sends {@code Last-Event-ID}) is replayed what it missed, or told to
+ * reset if that is no longer available or its id belongs to another epoch. A client without a
+ * known version gets a {@code ready} event carrying the current one.
+ *
+ * <p>Idle subscribers hold no thread: the response is an async servlet response. Each subscriber
+ * has its own queue, drained on a virtual thread only while it has events, so a slow client delays
+ * nobody else; one that falls {@code stream.max-queued-events} behind is disconnected and resumes
+ * from the ring buffer when it reconnects.
+ */
+@Component
+public class RepositoryChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryChangeFeed.class);
+
+    record FeedEvent(String name, String epoch, long version, String json) {}
+
+    private record HistoryEntry(long version, long previousVersion, FeedEvent event) {}
+
+    private final ObjectMapper objectMapper;
+    private final RepositoryStatsEngine statsEngine;
+    private final HistoryEntry[] history;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final int maxQueuedEvents;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeatExecutor;
+    private int historyStart;
+    private int historySize;
+    private boolean closed;
+    private String latestEpoch = "";
+    private long latestVersion;
+
+    public RepositoryChangeFeed(ObjectMapper objectMapper,
+                                RepositoryStatsEngine statsEngine,
+                                RepositoryMetrics metrics,
+                                @Value("${stream.history-size:256}") int historySize,
+                                @Value("${stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                                @Value("${stream.heartbeat-ms:25000}") long heartbeatMs,
+                                @Value("${stream.max-subscribers:10000}") int maxSubscribers,
+                                @Value("${stream.max-queued-events:64}") int maxQueuedEvents) {
+        this.objectMapper = objectMapper;
+        this.statsEngine = statsEngine;
+        this.history = new HistoryEntry[Math.max(1, historySize)];
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        metrics.registerGauge("repository.stream.subscribers", "Open change feed connections", subscribers, Set::size);
+    }
+
+    /**
+     * Opens a subscription. {@code lastEventId} is the id of the last event the client received,
+     * and {@code since} the data it holds as {@code <epoch>-<version>} or a bare version of the
+     * current epoch; either may be {@code null}, and the id wins when both are sent.
+     *
+     * @throws IllegalStateException when {@code stream.max-subscribers} connections are open, or
+     *         the application is shutting down
+     */
+    public SseEmitter subscribe(String lastEventId, String since) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // Registering and replaying under the same lock as publishing means no event is missed or sent twice
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Change feed is shut down");
+            }
+            for (FeedEvent event : catchUp(lastEventId, since)) {
+                subscriber.enqueue(event);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onRepositoryChange(RepositoryChangeEvent event) {
+        String epoch = event.current().getEpoch();
+        long version = event.current().getVersion();
+        long previousVersion = event.previous().getVersion();
+        boolean newEpoch = !epoch.equals(event.previous().getEpoch());
+        FeedEvent feedEvent;
+        if (!event.previous().isLoaded() || newEpoch) {
+            feedEvent = reset(epoch, version);
+        } else {
+            RepositoryChangeSet changes = event.changes();
+            feedEvent = new FeedEvent("delta", epoch, version, json(new RepositoryDelta(version, previousVersion,
+                    changes.added(), changes.updated(), changes.removed(), stats(event.current()))));
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (newEpoch) {
+                // Versions of the old epoch may be counted again in the new one
+                historyStart = 0;
+                historySize = 0;
+            }
+            latestEpoch = epoch;
+            latestVersion = version;
+            append(new HistoryEntry(version, previousVersion, feedEvent));
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(feedEvent);
+            }
+        }
+    }
+
+    /**
+     * Events a new subscriber is sent before live ones, as {@link #subscribe} chooses them.
+     */
+    synchronized List<FeedEvent> catchUp(String lastEventId, String since) {
+        return lastEventId != null ? backlog(lastEventId, true) : backlog(since, false);
+    }
+
+    /**
+     * Events a client holding {@code held} needs to catch up; without {@code requireEpoch} a bare
+     * version stands for one of the current epoch. Must be called holding the lock.
+     */
+    private List<FeedEvent> backlog(String held, boolean requireEpoch) {
+        if (held == null) {
+            return List.of(ready());
+        }
+        FeedEvent reset = reset(latestEpoch, latestVersion);
+        int separator = held.lastIndexOf('-');
+        String epoch = separator >= 0 ? held.substring(0, separator) : null;
+        long lastVersion;
+        try {
+            lastVersion = Long.parseLong(held.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            lastVersion = -1;
+        }
+        if (lastVersion < 0 || (epoch == null && requireEpoch)) {
+            // An id we did not issue, or one issued before ids carried the epoch
+            return List.of(reset);
+        }
+        if (epoch != null && !epoch.equals(latestEpoch)) {
+            // Counted before a restart without the snapshot file, or in a database since recreated
+            return List.of(reset);
+        }
+        if (lastVersion == latestVersion) {
+            return List.of(ready());
+        }
+
+        List<FeedEvent> missed = new ArrayList<>();
+        long expectedPrevious = lastVersion;
+        for (int i = 0; i < historySize; i++) {
+            HistoryEntry entry = history[(historyStart + i) % history.length];
+            if (entry.version() <= lastVersion) {
+                continue;
+            }
+            if (entry.previousVersion() != expectedPrevious) {
+                // The client's version has been evicted from the history, or never existed
+                return List.of(reset);
+            }
+            missed.add(entry.event());
+            expectedPrevious = entry.version();
+        }
+        // Replaying more than a subscriber may queue would only get it disconnected
+        if (expectedPrevious != latestVersion || missed.size() > maxQueuedEvents) {
+            return List.of(reset);
+        }
+        return missed;
+    }
+
+    /**
+     * Totals for a delta. The stats engine has already applied this change (its listener runs
+     * first), so they cost nothing; the full aggregate is only a fallback.
+     */
+    private RepositoryStats stats(RepositorySnapshot snapshot) {
+        RepositoryStatsEngine.VersionedStats stats = statsEngine.currentVersioned();
+        if (stats.version() == snapshot.getVersion() && stats.epoch().equals(snapshot.getEpoch())) {
+            return stats.stats();
+        }
+        RepositoryColumns columns = snapshot.getColumns();
+        return columns.aggregate(columns.select(null, null, null, null));
+    }
+
+    private FeedEvent ready() {
+        return new FeedEvent("ready", latestEpoch, latestVersion,
+                json(Map.of("epoch", latestEpoch, "version", latestVersion)));
+    }
+
+    private FeedEvent reset(String epoch, long version) {
+        return new FeedEvent("reset", epoch, version, json(Map.of("epoch", epoch, "version", version)));
+    }
+
+    private void append(HistoryEntry entry) {
+        if (historySize < history.length) {
+            history[(historyStart + historySize++) % history.length] = entry;
+        } else {
+            history[historyStart] = entry;
+            historyStart = (historyStart + 1) % history.length;
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(null);
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize change feed event", e);
+        }
+    }
+
+    /**
+     * Completes every subscription. Snapshots published after this, e.g. by a sync that outlived
+     * its shutdown timeout, are no longer sent.
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            closed = true;
+        }
+        heartbeatExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * One connection and the events not yet written to it; a {@code null} event is a heartbeat.
+     */
+    private final class Subscriber {
+
+        private static final FeedEvent HEARTBEAT = new FeedEvent(null, null, 0, null);
+
+        private final SseEmitter emitter;
+        private final Queue<FeedEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(FeedEvent event) {
+            if (event == null && !pending.isEmpty()) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueuedEvents) {
+                log.debug("Disconnecting change feed subscriber that fell behind queued={}", queued.get());
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.add(event != null ? event : HEARTBEAT);
+            if (draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                FeedEvent event;
+                while ((event = pending.poll()) != null) {
+                    queued.decrementAndGet();
+                    if (!send(event)) {
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An event enqueued after the last poll but before the flag was cleared is drained here
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(FeedEvent event) {
+            try {
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .id(event.epoch() + "-" + event.version())
+                            .name(event.name())
+                            .data(event.json(), MediaType.APPLICATION_JSON));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter and the callbacks unregister it
+                subscribers.remove(this);
+                return false;
+            }
+        }
+    }
+}
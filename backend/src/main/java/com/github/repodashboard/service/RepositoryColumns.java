@@ -0,0 +1,350 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryStats;
+import com.github.repodashboard.dto.RepositoryStats.LanguageFacet;
+import com.github.repodashboard.model.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Column-oriented read index over a snapshot's repositories, built once per snapshot.
+ *
+ * <p>Rows are ordered by repository id, so a row number doubles as the id tiebreak of every sort
+ * and an id is resolved to its row by binary search. Numeric properties are primitive arrays,
+ * booleans are {@link BitSet}s, and low-cardinality strings (language, source) are
+ * dictionary-encoded with one row bitset per distinct value; multi-valued enriched details (topics,
+ * languages present in the code) keep a row bitset per value. Filters are evaluated as bitset
+ * intersections and aggregates as loops over primitive arrays; {@link Repository} objects are only
+ * touched to render the rows that are actually returned.
+ */
+public final class RepositoryColumns {
+
+    /**
+     * Orders rows for sorting; rows are compared by column value, never by {@link Repository}.
+     */
+    @FunctionalInterface
+    public interface RowComparator {
+        int compare(int left, int right);
+    }
+
+    private static final RepositoryColumns EMPTY = new RepositoryColumns(List.of());
+
+    private final int size;
+    private final Repository[] rows;
+    private final long[] ids;
+    private final String[] names;
+    private final int[] stars;
+    private final int[] forks;
+    private final long[] createdAt;
+    private final long[] updatedAt;
+    private final BitSet privateRows;
+    private final BitSet forkRows;
+    private final int[] openIssues;
+    private final long[] lastCommitAt;
+    private final BitSet openIssueRows;
+    private final int[] snapshotOrder;
+    private final Dictionary languages;
+    private final Dictionary sources;
+    private final Map<String, BitSet> topicRows = new HashMap<>();
+    private final Map<String, BitSet> languageUseRows = new HashMap<>();
+
+    RepositoryColumns(List<Repository> repositories) {
+        size = repositories.size();
+        Integer[] byId = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, (left, right) -> Long.compare(repositories.get(left).getId(), repositories.get(right).getId()));
+
+        rows = new Repository[size];
+        ids = new long[size];
+        names = new String[size];
+        stars = new int[size];
+        forks = new int[size];
+        createdAt = new long[size];
+        updatedAt = new long[size];
+        privateRows = new BitSet(size);
+        forkRows = new BitSet(size);
+        openIssues = new int[size];
+        lastCommitAt = new long[size];
+        openIssueRows = new BitSet(size);
+        snapshotOrder = new int[size];
+        String[] languageValues = new String[size];
+        String[] sourceValues = new String[size];
+
+        for (int row = 0; row < size; row++) {
+            int position = byId[row];
+            Repository repository = repositories.get(position);
+            rows[row] = repository;
+            ids[row] = repository.getId();
+            names[row] = repository.getName();
+            stars[row] = valueOf(repository.getStargazersCount());
+            forks[row] = valueOf(repository.getForksCount());
+            createdAt[row] = epochSecond(repository.getCreatedAt());
+            updatedAt[row] = epochSecond(repository.getUpdatedAt());
+            privateRows.set(row, Boolean.TRUE.equals(repository.getIsPrivate()));
+            forkRows.set(row, Boolean.TRUE.equals(repository.getIsFork()));
+            openIssues[row] = valueOf(repository.getOpenIssuesCount());
+            openIssueRows.set(row, openIssues[row] > 0);
+            lastCommitAt[row] = epochSecond(repository.getLastCommitAt());
+            if (repository.getTopics() != null) {
+                for (String topic : repository.getTopics()) {
+                    topicRows.computeIfAbsent(topic, key -> new BitSet(size)).set(row);
+                }
+            }
+            if (repository.getLanguageBytes() != null) {
+                for (String language : repository.getLanguageBytes().keySet()) {
+                    languageUseRows.computeIfAbsent(language, key -> new BitSet(size)).set(row);
+                }
+            }
+            snapshotOrder[position] = row;
+            languageValues[row] = repository.getLanguage();
+            sourceValues[row] = repository.getSource();
+        }
+        languages = new Dictionary(languageValues);
+        sources = new Dictionary(sourceValues);
+    }
+
+    static RepositoryColumns empty() {
+        return EMPTY;
+    }
+
+    public int size() { return size; }
+
+    public Repository repository(int row) { return rows[row]; }
+
+    public long id(int row) { return ids[row]; }
+
+    public String name(int row) { return names[row]; }
+
+    public int stars(int row) { return stars[row]; }
+
+    public int forks(int row) { return forks[row]; }
+
+    public long createdAt(int row) { return createdAt[row]; }
+
+    /**
+     * Last update time in epoch seconds (UTC); GitHub timestamps have second precision.
+     */
+    public long updatedAt(int row) { return updatedAt[row]; }
+
+    /**
+     * Open issues and pull requests; 0 until the repository is enriched.
+     */
+    public int openIssues(int row) { return openIssues[row]; }
+
+    /**
+     * Time of the latest commit in epoch seconds (UTC), 0 if unknown.
+     */
+    public long lastCommitAt(int row) { return lastCommitAt[row]; }
+
+    /**
+     * Row holding {@code id}, or a negative value if there is none.
+     */
+    public int rowOf(long id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * Rows in the order of the snapshot's repository list.
+     */
+    public int[] snapshotOrder() {
+        return snapshotOrder.clone();
+    }
+
+    /**
+     * Distinct languages, sorted alphabetically.
+     */
+    public List<String> languages() {
+        return languages.values();
+    }
+
+    /**
+     * Rows matching every non-null filter. An unknown language or source matches nothing.
+     */
+    public BitSet select(String language, String source, Boolean isPrivate, Boolean isFork) {
+        BitSet selection = new BitSet(size);
+        selection.set(0, size);
+        if (language != null) {
+            selection.and(languages.rows(language));
+        }
+        if (source != null) {
+            selection.and(sources.rows(source));
+        }
+        if (isPrivate != null) {
+            intersect(selection, privateRows, isPrivate);
+        }
+        if (isFork != null) {
+            intersect(selection, forkRows, isFork);
+        }
+        return selection;
+    }
+
+    /**
+     * Narrows {@code selection} by enriched details: a topic, a language anywhere in the code, having
+     * open issues, and a latest commit at or after {@code committedSince} (epoch seconds). Null
+     * filters are ignored; repositories not enriched yet match none of them.
+     */
+    public void refine(BitSet selection, String topic, String usesLanguage, Boolean hasOpenIssues, Long committedSince) {
+        if (topic != null) {
+            selection.and(topicRows.getOrDefault(topic.toLowerCase(Locale.ROOT), Dictionary.NONE));
+        }
+        if (usesLanguage != null) {
+            selection.and(languageUseRows.getOrDefault(usesLanguage, Dictionary.NONE));
+        }
+        if (hasOpenIssues != null) {
+            intersect(selection, openIssueRows, hasOpenIssues);
+        }
+        if (committedSince != null) {
+            for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1)) {
+                if (lastCommitAt[row] == 0 || lastCommitAt[row] < committedSince) {
+                    selection.clear(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Totals and language facets over the selected rows.
+     */
+    public RepositoryStats aggregate(BitSet selection) {
+        int total = selection.cardinality();
+        BitSet selectedPrivate = (BitSet) selection.clone();
+        selectedPrivate.and(privateRows);
+        BitSet selectedForks = (BitSet) selection.clone();
+        selectedForks.and(forkRows);
+
+        long totalStars = 0;
+        long totalForks = 0;
+        int[] languageRepositories = new int[languages.size()];
+        long[] languageStars = new long[languages.size()];
+        for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1)) {
+            totalStars += stars[row];
+            totalForks += forks[row];
+            int code = languages.code(row);
+            if (code >= 0) {
+                languageRepositories[code]++;
+                languageStars[code] += stars[row];
+            }
+        }
+
+        Map<String, LanguageFacet> facets = new TreeMap<>();
+        for (int code = 0; code < languageRepositories.length; code++) {
+            if (languageRepositories[code] > 0) {
+                facets.put(languages.value(code), new LanguageFacet(languageRepositories[code], languageStars[code]));
+            }
+        }
+        int privateCount = selectedPrivate.cardinality();
+        return new RepositoryStats(total, total - privateCount, privateCount, selectedForks.cardinality(),
+                totalStars, totalForks, Collections.unmodifiableMap(facets));
+    }
+
+    /**
+     * Sorts {@code selected} in place with a stable merge sort on primitive row numbers.
+     */
+    public static void sort(int[] selected, RowComparator comparator) {
+        if (selected.length < 2) {
+            return;
+        }
+        mergeSort(selected.clone(), selected, 0, selected.length, comparator);
+    }
+
+    private static void mergeSort(int[] source, int[] target, int from, int to, RowComparator comparator) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = target[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(target[j], row) > 0) {
+                    target[j + 1] = target[j];
+                    j--;
+                }
+                target[j + 1] = row;
+            }
+            return;
+        }
+        // Sort both halves into source, then merge them back into target
+        int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, comparator);
+        mergeSort(target, source, middle, to, comparator);
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    private static void intersect(BitSet selection, BitSet flags, boolean expected) {
+        if (expected) {
+            selection.and(flags);
+        } else {
+            selection.andNot(flags);
+        }
+    }
+
+    static long epochSecond(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : 0;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Dictionary-encoded string column: a code per row and a row bitset per distinct value.
+     */
+    private static final class Dictionary {
+
+        private static final BitSet NONE = new BitSet();
+
+        private final String[] values;
+        private final int[] codes;
+        private final BitSet[] rowsByCode;
+
+        Dictionary(String[] column) {
+            TreeSet<String> distinct = new TreeSet<>();
+            for (String value : column) {
+                if (value != null) {
+                    distinct.add(value);
+                }
+            }
+            values = distinct.toArray(new String[0]);
+            codes = new int[column.length];
+            rowsByCode = new BitSet[values.length];
+            for (int code = 0; code < values.length; code++) {
+                rowsByCode[code] = new BitSet(column.length);
+            }
+            for (int row = 0; row < column.length; row++) {
+                int code = column[row] != null ? Arrays.binarySearch(values, column[row]) : -1;
+                codes[row] = code;
+                if (code >= 0) {
+                    rowsByCode[code].set(row);
+                }
+            }
+        }
+
+        int size() { return values.length; }
+
+        int code(int row) { return codes[row]; }
+
+        String value(int code) { return values[code]; }
+
+        List<String> values() { return List.of(values); }
+
+        BitSet rows(String value) {
+            int code = Arrays.binarySearch(values, value);
+            return code >= 0 ? rowsByCode[code] : NONE;
+        }
+    }
+}
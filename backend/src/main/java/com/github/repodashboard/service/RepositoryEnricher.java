@@ -0,0 +1,408 @@
+package com.github.repodashboard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.model.Repository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the details the repository list endpoint does not return: topics and open issue count
+ * ({@code GET /repos/{owner}/{repo}}), bytes of code per language ({@code .../languages}) and the
+ * latest commit on the default branch ({@code .../commits?per_page=1}).
+ *
+ * <p>Only repositories whose details are missing or older than their {@code updatedAt} are
+ * enriched; they are tracked from snapshot changes and worked off in passes of at most
+ * {@code github.enrichment.max-repositories-per-pass}. A pass runs on virtual threads, with at most
+ * {@code github.enrichment.max-concurrency} repositories in flight, and every call goes through the
+ * shared {@link GitHubRequestBudget}.
+ *
+ * <p>Each response is cached with its ETag / Last-Modified and revalidated conditionally, so a
+ * detail that did not change costs a 304, which GitHub does not count against the rate limit. Once
+ * a source has {@code github.enrichment.reserved-requests} calls or fewer left, its remaining
+ * repositories are deferred to a later pass, keeping the quota for the list sync.
+ */
+@Component
+public class RepositoryEnricher {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryEnricher.class);
+
+    /**
+     * Details fetched for one repository, for the {@code updatedAt} it had when they were fetched.
+     */
+    public record Details(LocalDateTime updatedAt,
+                          List<String> topics,
+                          Integer openIssuesCount,
+                          Map<String, Long> languageBytes,
+                          String lastCommitSha,
+                          LocalDateTime lastCommitAt,
+                          LocalDateTime fetchedAt) {
+
+        public void applyTo(Repository repository) {
+            repository.setTopics(topics);
+            repository.setOpenIssuesCount(openIssuesCount);
+            repository.setLanguageBytes(languageBytes);
+            repository.setLastCommitSha(lastCommitSha);
+            repository.setLastCommitAt(lastCommitAt);
+            // A GitHub clock ahead of ours must not leave the row looking stale forever
+            repository.setEnrichedAt(updatedAt != null && updatedAt.isAfter(fetchedAt) ? updatedAt : fetchedAt);
+        }
+    }
+
+    public record EnrichmentResult(Map<Long, Details> details, int deferred, int failed) {}
+
+    private enum Endpoint {
+        REPOSITORY(""), LANGUAGES("/languages"), LAST_COMMIT("/commits?per_page=1");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private record CacheKey(long id, Endpoint endpoint) {}
+
+    private record CachedResponse(String etag, String lastModified, Object value) {}
+
+    private record RepositoryFacts(List<String> topics, Integer openIssuesCount) {}
+
+    private record CommitFacts(String sha, LocalDateTime committedAt) {}
+
+    private static final CommitFacts NO_COMMITS = new CommitFacts(null, null);
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final ObjectMapper objectMapper;
+    private final GitHubRepositoryFetcher repositoryFetcher;
+    private final GitHubRateLimitTracker rateLimitTracker;
+    private final GitHubRequestBudget requestBudget;
+    private final RepositoryMetrics metrics;
+    private final String baseUrl;
+    private final boolean enabled;
+    private final int maxConcurrency;
+    private final int maxRepositoriesPerPass;
+    private final int reservedRequests;
+    private final ExecutorService enrichExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<CacheKey, CachedResponse> responseCache = new ConcurrentHashMap<>();
+    private final Set<Long> pending = new LinkedHashSet<>();
+
+    public RepositoryEnricher(ObjectMapper objectMapper,
+                              GitHubRepositoryFetcher repositoryFetcher,
+                              GitHubRateLimitTracker rateLimitTracker,
+                              GitHubRequestBudget requestBudget,
+                              RepositoryMetrics metrics,
+                              @Value("${github.api.base-url}") String baseUrl,
+                              @Value("${github.enrichment.enabled:true}") boolean enabled,
+                              @Value("${github.enrichment.max-concurrency:8}") int maxConcurrency,
+                              @Value("${github.enrichment.max-repositories-per-pass:200}") int maxRepositoriesPerPass,
+                              @Value("${github.enrichment.reserved-requests:1000}") int reservedRequests) {
+        this.objectMapper = objectMapper;
+        this.repositoryFetcher = repositoryFetcher;
+        this.rateLimitTracker = rateLimitTracker;
+        this.requestBudget = requestBudget;
+        this.metrics = metrics;
+        this.baseUrl = baseUrl;
+        this.enabled = enabled;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxRepositoriesPerPass = Math.max(1, maxRepositoriesPerPass);
+        this.reservedRequests = reservedRequests;
+        metrics.registerGauge("repository.enrichment.pending", "Repositories waiting for their details", this,
+                RepositoryEnricher::pendingCount);
+    }
+
+    @EventListener
+    public void onRepositoryChange(RepositoryChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pending) {
+            if (!event.previous().isLoaded()) {
+                pending.clear();
+                for (Repository repository : event.current().getRepositories()) {
+                    if (repository.needsEnrichment()) {
+                        pending.add(repository.getId());
+                    }
+                }
+                responseCache.keySet().removeIf(key -> event.current().getRepository(key.id()) == null);
+                return;
+            }
+            RepositoryChangeSet changes = event.changes();
+            if (!changes.removed().isEmpty()) {
+                Set<Long> removed = new HashSet<>(changes.removed());
+                pending.removeAll(removed);
+                responseCache.keySet().removeIf(key -> removed.contains(key.id()));
+            }
+            track(changes.updated());
+            track(changes.added());
+        }
+    }
+
+    private void track(List<Repository> repositories) {
+        for (Repository repository : repositories) {
+            if (repository.needsEnrichment()) {
+                pending.add(repository.getId());
+            } else {
+                pending.remove(repository.getId());
+            }
+        }
+    }
+
+    public boolean hasPending() {
+        synchronized (pending) {
+            return !pending.isEmpty();
+        }
+    }
+
+    private int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Fetches the details of the next pass of pending repositories of {@code snapshot}. Repositories
+     * that were deferred or failed stay pending; the others leave the pending set once their details
+     * are published.
+     */
+    public EnrichmentResult enrichPending(RepositorySnapshot snapshot) {
+        List<Repository> batch = new ArrayList<>();
+        synchronized (pending) {
+            for (Iterator<Long> ids = pending.iterator(); ids.hasNext() && batch.size() < maxRepositoriesPerPass; ) {
+                Repository repository = snapshot.getRepository(ids.next());
+                if (repository == null || !repository.needsEnrichment()) {
+                    ids.remove();
+                } else {
+                    batch.add(repository);
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return new EnrichmentResult(Map.of(), 0, 0);
+        }
+
+        long start = System.nanoTime();
+        Map<Long, Details> details = new ConcurrentHashMap<>();
+        Set<String> exhaustedSources = ConcurrentHashMap.newKeySet();
+        AtomicInteger deferred = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<?>> tasks = new ArrayList<>(batch.size());
+        try {
+            for (Repository repository : batch) {
+                // Acquired here rather than in the task, so at most maxConcurrency threads exist at a time
+                permits.acquire();
+                tasks.add(enrichExecutor.submit(() -> {
+                    try {
+                        enrich(repository, details, exhaustedSources, deferred, failed);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(task -> task.cancel(true));
+        } catch (ExecutionException e) {
+            log.warn("Repository enrichment task failed", e.getCause());
+        }
+
+        metrics.recordEnrichment("enriched", details.size());
+        metrics.recordEnrichment("deferred", deferred.get());
+        metrics.recordEnrichment("failed", failed.get());
+        log.info("Repository enrichment pass complete enriched={} deferred={} failed={} pending={} durationMs={}",
+                details.size(), deferred.get(), failed.get(), pendingCount(), (System.nanoTime() - start) / 1_000_000);
+        if (!exhaustedSources.isEmpty()) {
+            log.info("Deferred repository enrichment to keep the rate limit reserve sources={} reserved={}",
+                    exhaustedSources, reservedRequests);
+        }
+        return new EnrichmentResult(Map.copyOf(details), deferred.get(), failed.get());
+    }
+
+    private void enrich(Repository repository, Map<Long, Details> details, Set<String> exhaustedSources,
+                        AtomicInteger deferred, AtomicInteger failed) {
+        String source = repository.getSource() != null ? repository.getSource() : repositoryFetcher.getPrimarySourceName();
+        if (exhaustedSources.contains(source) || isLowOnQuota(source)) {
+            exhaustedSources.add(source);
+            deferred.incrementAndGet();
+            return;
+        }
+        try {
+            RepositoryFacts facts = (RepositoryFacts) fetch(repository, source, Endpoint.REPOSITORY);
+            @SuppressWarnings("unchecked")
+            Map<String, Long> languageBytes = (Map<String, Long>) fetch(repository, source, Endpoint.LANGUAGES);
+            CommitFacts commit = (CommitFacts) fetch(repository, source, Endpoint.LAST_COMMIT);
+            details.put(repository.getId(), new Details(repository.getUpdatedAt(), facts.topics(),
+                    facts.openIssuesCount(), languageBytes, commit.sha(), commit.committedAt(),
+                    LocalDateTime.now(ZoneOffset.UTC)));
+        } catch (HttpStatusCodeException e) {
+            if (isRateLimited(e, source)) {
+                // Primary or secondary rate limit: leave the source alone for the rest of the pass
+                exhaustedSources.add(source);
+                deferred.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+                log.debug("Enriching repository failed id={} fullName={} status={}",
+                        repository.getId(), repository.getFullName(), e.getStatusCode().value());
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.debug("Enriching repository failed id={} fullName={} error={}",
+                    repository.getId(), repository.getFullName(), e.toString());
+        }
+    }
+
+    private boolean isRateLimited(HttpStatusCodeException e, String source) {
+        if (e.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            return true;
+        }
+        return e.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN)
+                && (rateLimitTracker.current(source).remaining() == 0
+                    || (e.getResponseHeaders() != null && e.getResponseHeaders().containsKey(HttpHeaders.RETRY_AFTER)));
+    }
+
+    private boolean isLowOnQuota(String source) {
+        GitHubRateLimitTracker.RateLimitStatus status = rateLimitTracker.current(source);
+        return status.isKnown() && status.remaining() <= reservedRequests && status.resetAt().isAfter(Instant.now());
+    }
+
+    private Object fetch(Repository repository, String source, Endpoint endpoint) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + repositoryFetcher.tokenFor(source));
+        headers.set("Accept", "application/json");
+        headers.set("User-Agent", "GitHub-Repo-Dashboard");
+
+        CacheKey cacheKey = new CacheKey(repository.getId(), endpoint);
+        CachedResponse cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        }
+        String url = baseUrl + "/repos/" + repository.getFullName() + endpoint.path;
+
+        return requestBudget.execute(() -> {
+            long start = System.nanoTime();
+            String[] outcome = {"error"};
+            try {
+                return restTemplate.execute(url, HttpMethod.GET,
+                        request -> request.getHeaders().putAll(headers),
+                        response -> {
+                            HttpHeaders responseHeaders = response.getHeaders();
+                            rateLimitTracker.update(source, responseHeaders);
+                            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached != null) {
+                                outcome[0] = "not_modified";
+                                return cached.value();
+                            }
+                            Object value = parse(endpoint, response.getBody());
+                            responseCache.put(cacheKey, new CachedResponse(responseHeaders.getETag(),
+                                    responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED), value));
+                            outcome[0] = "ok";
+                            return value;
+                        });
+            } catch (HttpStatusCodeException e) {
+                if (e.getResponseHeaders() != null) {
+                    rateLimitTracker.update(source, e.getResponseHeaders());
+                }
+                if (endpoint == Endpoint.LAST_COMMIT && e.getStatusCode().isSameCodeAs(HttpStatus.CONFLICT)) {
+                    // GitHub answers 409 for a repository without commits
+                    outcome[0] = "ok";
+                    responseCache.remove(cacheKey);
+                    return NO_COMMITS;
+                }
+                throw e;
+            } finally {
+                metrics.recordGitHubRequest(source, outcome[0], System.nanoTime() - start);
+            }
+        });
+    }
+
+    private Object parse(Endpoint endpoint, InputStream body) throws IOException {
+        JsonNode node = objectMapper.readTree(body);
+        return switch (endpoint) {
+            case REPOSITORY -> {
+                List<String> topics = new ArrayList<>();
+                node.path("topics").forEach(topic -> {
+                    if (topic.isTextual()) {
+                        topics.add(topic.asText());
+                    }
+                });
+                JsonNode openIssues = node.path("open_issues_count");
+                yield new RepositoryFacts(List.copyOf(topics), openIssues.isInt() ? openIssues.asInt() : null);
+            }
+            case LANGUAGES -> {
+                // GitHub lists languages by size, largest first; the order is kept
+                Map<String, Long> languageBytes = new LinkedHashMap<>();
+                node.fields().forEachRemaining(field -> {
+                    if (field.getValue().canConvertToLong()) {
+                        languageBytes.put(field.getKey(), field.getValue().asLong());
+                    }
+                });
+                yield Collections.unmodifiableMap(languageBytes);
+            }
+            case LAST_COMMIT -> {
+                JsonNode commit = node.path(0);
+                if (commit.isMissingNode()) {
+                    yield NO_COMMITS;
+                }
+                String date = commit.path("commit").path("committer").path("date").asText(null);
+                yield new CommitFacts(commit.path("sha").asText(null), parseTimestamp(date));
+            }
+        };
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return GitHubTimestamps.parseUtc(value);
+        } catch (DateTimeException e) {
+            log.debug("Ignoring unparseable commit timestamp value={}", value);
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        enrichExecutor.shutdownNow();
+    }
+}
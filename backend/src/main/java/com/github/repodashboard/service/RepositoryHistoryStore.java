@@ -0,0 +1,720 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.RepositoryGrowth;
+import com.github.repodashboard.dto.RepositoryTrend;
+import com.github.repodashboard.model.Repository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Star and fork history of every repository, recorded from snapshot changes.
+ *
+ * <p>A sample is appended whenever a published snapshot changes a repository's star or fork
+ * count. Samples go to an append-only raw log per repository, encoded as zigzag varint deltas of
+ * (time, stars, forks) from the previous sample, usually three to six bytes each, and kept for
+ * {@code history.raw-retention-days}. Each sample also updates hourly, daily and weekly rollups:
+ * sparse, time-ordered primitive arrays holding the last counts of every bucket in which something
+ * changed, each with its own retention. A bucket without changes carries the counts of the one
+ * before it, so a value at any time is one binary search and a trend is a merge walk over at most
+ * as many entries as it has points. Raw samples are never scanned to answer a rollup query.
+ *
+ * <p>History is dropped together with the repository. The whole store can be exported to, and
+ * restored from, a compact binary form that is persisted with the repository snapshot.
+ */
+@Component
+public class RepositoryHistoryStore {
+
+    public enum Resolution {
+        RAW("raw", 1, 0),
+        HOUR("hour", 3_600, 0),
+        DAY("day", 86_400, 0),
+        // Weeks start on Monday; the epoch was a Thursday
+        WEEK("week", 604_800, 4 * 86_400);
+
+        private final String parameter;
+        private final long width;
+        private final long offset;
+
+        Resolution(String parameter, long width, long offset) {
+            this.parameter = parameter;
+            this.width = width;
+            this.offset = offset;
+        }
+
+        public static Resolution parse(String value) {
+            for (Resolution resolution : values()) {
+                if (resolution.parameter.equalsIgnoreCase(value)) {
+                    return resolution;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported resolution: " + value);
+        }
+
+        long bucketOf(long epochSecond) {
+            return Math.floorDiv(epochSecond - offset, width);
+        }
+
+        long startOf(long bucket) {
+            return bucket * width + offset;
+        }
+    }
+
+    public enum Metric {
+        STARS, FORKS;
+
+        public static Metric parse(String value) {
+            for (Metric metric : values()) {
+                if (metric.name().equalsIgnoreCase(value)) {
+                    return metric;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported metric: " + value);
+        }
+    }
+
+    private static final Resolution[] ROLLUPS = {Resolution.HOUR, Resolution.DAY, Resolution.WEEK};
+    private static final byte EXPORT_VERSION = 1;
+
+    private final Map<Long, Series> seriesById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long rawRetentionSeconds;
+    private final int[] retentionBuckets;
+    private final int maxPoints;
+
+    public RepositoryHistoryStore(@Value("${history.raw-retention-days:30}") int rawRetentionDays,
+                                  @Value("${history.hourly-retention-days:14}") int hourlyRetentionDays,
+                                  @Value("${history.daily-retention-days:400}") int dailyRetentionDays,
+                                  @Value("${history.weekly-retention-weeks:520}") int weeklyRetentionWeeks,
+                                  @Value("${history.max-points:5000}") int maxPoints) {
+        this.rawRetentionSeconds = Duration.ofDays(rawRetentionDays).toSeconds();
+        this.retentionBuckets = new int[] {hourlyRetentionDays * 24, dailyRetentionDays, weeklyRetentionWeeks};
+        this.maxPoints = maxPoints;
+    }
+
+    @EventListener
+    public void onRepositoryChange(RepositoryChangeEvent event) {
+        long now = Instant.now().getEpochSecond();
+        lock.writeLock().lock();
+        try {
+            if (!event.previous().isLoaded()) {
+                // Full snapshot: record what changed since the history we have, drop what is gone
+                RepositoryColumns columns = event.current().getColumns();
+                for (int row = 0; row < columns.size(); row++) {
+                    record(columns.id(row), now, columns.stars(row), columns.forks(row));
+                }
+                seriesById.keySet().removeIf(id -> columns.rowOf(id) < 0);
+                return;
+            }
+            RepositoryChangeSet changes = event.changes();
+            changes.removed().forEach(seriesById::remove);
+            for (Repository repository : changes.updated()) {
+                record(repository, now);
+            }
+            for (Repository repository : changes.added()) {
+                record(repository, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts of one repository per {@code resolution} bucket over the last {@code window}, or
+     * {@code null} if it has no history. With {@link Resolution#RAW} the recorded samples are
+     * returned as they are.
+     */
+    public RepositoryTrend trend(long id, Resolution resolution, Duration window) {
+        long now = Instant.now().getEpochSecond();
+        long from = now - requirePositive(window).toSeconds();
+        lock.readLock().lock();
+        try {
+            Series series = seriesById.get(id);
+            if (series == null) {
+                return null;
+            }
+            if (resolution == Resolution.RAW) {
+                if (window.toSeconds() > rawRetentionSeconds) {
+                    throw new IllegalArgumentException("Raw samples are kept for " + rawRetentionSeconds / 86_400
+                            + " days; use a coarser resolution for longer windows");
+                }
+                return new RepositoryTrend(id, resolution.parameter, series.samples(from));
+            }
+            int retention = retentionBuckets[resolution.ordinal() - 1];
+            if (resolution.bucketOf(now) - resolution.bucketOf(from) >= retention) {
+                throw new IllegalArgumentException(resolution.parameter + " buckets are kept for " + retention
+                        + " " + resolution.parameter + "s; use a coarser resolution for longer windows");
+            }
+            return new RepositoryTrend(id, resolution.parameter, series.rollup(resolution).points(from, now, maxPoints));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Repositories of the snapshot (optionally of one language) whose count grew the most over the
+     * last {@code window}, largest growth first. The baseline is read from the finest rollup that
+     * still covers the window start, so it is exact to that rollup's bucket.
+     */
+    public List<RepositoryGrowth> fastestGrowing(RepositorySnapshot snapshot, Duration window, Metric metric,
+                                                 String language, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        long now = Instant.now().getEpochSecond();
+        long windowStart = now - requirePositive(window).toSeconds();
+        Resolution resolution = finestCovering(now, windowStart);
+        int[] current = new int[1];
+        int[] previous = new int[1];
+
+        RepositoryColumns columns = snapshot.getColumns();
+        int[] rows = columns.select(language, null, null, null).stream().toArray();
+        List<RepositoryGrowth> growth = new ArrayList<>(rows.length);
+        lock.readLock().lock();
+        try {
+            for (int row : rows) {
+                current[0] = metric == Metric.STARS ? columns.stars(row) : columns.forks(row);
+                Series series = seriesById.get(columns.id(row));
+                long since;
+                if (series != null && series.rollup(resolution).valueAt(windowStart, metric, previous)) {
+                    since = windowStart;
+                } else if (columns.createdAt(row) >= windowStart) {
+                    // Created inside the window: everything it has was gained in the window
+                    previous[0] = 0;
+                    since = columns.createdAt(row);
+                } else if (series != null) {
+                    // Tracked only since after the window start
+                    since = series.rollup(resolution).earliest(metric, previous);
+                    if (since == Long.MIN_VALUE) {
+                        continue;
+                    }
+                    since = Math.max(windowStart, since);
+                } else {
+                    continue;
+                }
+                Repository repository = columns.repository(row);
+                int gained = current[0] - previous[0];
+                growth.add(new RepositoryGrowth(repository.getId(), repository.getName(), repository.getFullName(),
+                        repository.getLanguage(), current[0], previous[0], gained,
+                        previous[0] > 0 ? (double) gained / previous[0] : null,
+                        Instant.ofEpochSecond(since)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        growth.sort(Comparator.comparingInt(RepositoryGrowth::growth).reversed()
+                .thenComparing(Comparator.comparingInt(RepositoryGrowth::current).reversed())
+                .thenComparingLong(RepositoryGrowth::id));
+        return growth.size() > limit ? List.copyOf(growth.subList(0, limit)) : growth;
+    }
+
+    /**
+     * The whole history in its compact binary form, for persisting alongside the snapshot.
+     */
+    public byte[] export() {
+        lock.readLock().lock();
+        try {
+            long[] ids = seriesById.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            ByteSink out = new ByteSink(64 + ids.length * 32);
+            out.write(EXPORT_VERSION);
+            out.writeVarLong(ids.length);
+            long previousId = 0;
+            for (long id : ids) {
+                out.writeVarLong(id - previousId);
+                previousId = id;
+                seriesById.get(id).writeTo(out);
+            }
+            return out.toByteArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the history with an exported one. An export of an unknown version is ignored.
+     */
+    public boolean restore(byte[] exported) {
+        if (exported == null || exported.length == 0 || exported[0] != EXPORT_VERSION) {
+            return false;
+        }
+        ByteSource in = new ByteSource(exported, 1);
+        Map<Long, Series> restored = new HashMap<>();
+        long count = in.readVarLong();
+        long id = 0;
+        for (long i = 0; i < count; i++) {
+            id += in.readVarLong();
+            restored.put(id, Series.readFrom(in, retentionBuckets));
+        }
+        if (in.remaining() != 0) {
+            throw new IllegalStateException(in.remaining() + " trailing bytes in repository history");
+        }
+        lock.writeLock().lock();
+        try {
+            seriesById.clear();
+            seriesById.putAll(restored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    private void record(Repository repository, long time) {
+        record(repository.getId(), time,
+                repository.getStargazersCount() != null ? repository.getStargazersCount() : 0,
+                repository.getForksCount() != null ? repository.getForksCount() : 0);
+    }
+
+    private void record(long id, long time, int stars, int forks) {
+        seriesById.computeIfAbsent(id, key -> new Series(retentionBuckets))
+                .record(time, stars, forks, time - rawRetentionSeconds);
+    }
+
+    private Resolution finestCovering(long now, long windowStart) {
+        for (Resolution resolution : ROLLUPS) {
+            if (resolution.bucketOf(now) - resolution.bucketOf(windowStart) < retentionBuckets[resolution.ordinal() - 1]) {
+                return resolution;
+            }
+        }
+        return Resolution.WEEK;
+    }
+
+    private static Duration requirePositive(Duration window) {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be a positive duration");
+        }
+        return window;
+    }
+
+    /**
+     * History of one repository: the raw sample log and a rollup per resolution.
+     */
+    private static final class Series {
+
+        private final ByteSink log;
+        private final Rollup[] rollups;
+        private long firstTime;
+        private long lastTime;
+        private int lastStars = -1;
+        private int lastForks = -1;
+
+        Series(int[] retentionBuckets) {
+            this(new ByteSink(32), retentionBuckets);
+        }
+
+        private Series(ByteSink log, int[] retentionBuckets) {
+            this.log = log;
+            this.rollups = new Rollup[ROLLUPS.length];
+            for (int i = 0; i < ROLLUPS.length; i++) {
+                rollups[i] = new Rollup(ROLLUPS[i], retentionBuckets[i]);
+            }
+        }
+
+        Rollup rollup(Resolution resolution) {
+            return rollups[resolution.ordinal() - 1];
+        }
+
+        void record(long time, int stars, int forks, long rawCutoff) {
+            if (stars == lastStars && forks == lastForks) {
+                return;
+            }
+            // A clock stepping backwards must not break the ordering of the log and the rollups
+            time = Math.max(time, lastTime);
+            if (log.size() == 0) {
+                firstTime = time;
+            } else if (firstTime < rawCutoff - 86_400) {
+                compact(rawCutoff);
+            }
+            log.writeVarLong(time - lastTime);
+            log.writeVarLong(zigzag(stars - lastStars));
+            log.writeVarLong(zigzag(forks - lastForks));
+            lastTime = time;
+            lastStars = stars;
+            lastForks = forks;
+            for (Rollup rollup : rollups) {
+                rollup.record(time, stars, forks);
+            }
+        }
+
+        /**
+         * Re-encodes the log without the samples older than {@code cutoff}; runs at most about
+         * once a day per repository.
+         */
+        private void compact(long cutoff) {
+            List<RepositoryTrend.Point> kept = samples(cutoff);
+            log.reset();
+            lastTime = 0;
+            lastStars = -1;
+            lastForks = -1;
+            for (RepositoryTrend.Point sample : kept) {
+                long time = sample.bucket().getEpochSecond();
+                if (log.size() == 0) {
+                    firstTime = time;
+                }
+                log.writeVarLong(time - lastTime);
+                log.writeVarLong(zigzag(sample.stars() - lastStars));
+                log.writeVarLong(zigzag(sample.forks() - lastForks));
+                lastTime = time;
+                lastStars = sample.stars();
+                lastForks = sample.forks();
+            }
+        }
+
+        List<RepositoryTrend.Point> samples(long from) {
+            List<RepositoryTrend.Point> samples = new ArrayList<>();
+            ByteSource in = new ByteSource(log.buffer(), 0, log.size());
+            long time = 0;
+            int stars = -1;
+            int forks = -1;
+            while (in.remaining() > 0) {
+                time += in.readVarLong();
+                stars += unzigzag(in.readVarLong());
+                forks += unzigzag(in.readVarLong());
+                if (time >= from) {
+                    samples.add(new RepositoryTrend.Point(Instant.ofEpochSecond(time), stars, forks));
+                }
+            }
+            return samples;
+        }
+
+        void writeTo(ByteSink out) {
+            out.writeVarLong(log.size());
+            out.write(log.buffer(), 0, log.size());
+            for (Rollup rollup : rollups) {
+                rollup.writeTo(out);
+            }
+        }
+
+        static Series readFrom(ByteSource in, int[] retentionBuckets) {
+            int logLength = (int) in.readVarLong();
+            ByteSink log = new ByteSink(Math.max(32, logLength));
+            log.write(in.buffer(), in.position(), logLength);
+            in.skip(logLength);
+
+            Series series = new Series(log, retentionBuckets);
+            // Replay the log's encoder state: the last sample, and when the first one was taken
+            List<RepositoryTrend.Point> samples = series.samples(Long.MIN_VALUE);
+            if (!samples.isEmpty()) {
+                RepositoryTrend.Point last = samples.get(samples.size() - 1);
+                series.firstTime = samples.get(0).bucket().getEpochSecond();
+                series.lastTime = last.bucket().getEpochSecond();
+                series.lastStars = last.stars();
+                series.lastForks = last.forks();
+            }
+            for (Rollup rollup : series.rollups) {
+                rollup.readFrom(in);
+            }
+            return series;
+        }
+    }
+
+    /**
+     * Last counts of each bucket in which they changed, in bucket order. Buckets older than the
+     * retention are evicted, remembering the counts of the newest evicted one as the base for
+     * everything before the first retained bucket.
+     */
+    private static final class Rollup {
+
+        private final Resolution resolution;
+        private final int retention;
+        private long[] buckets = new long[4];
+        private int[] stars = new int[4];
+        private int[] forks = new int[4];
+        private int size;
+        private boolean hasBase;
+        private int baseStars;
+        private int baseForks;
+
+        Rollup(Resolution resolution, int retention) {
+            this.resolution = resolution;
+            this.retention = Math.max(1, retention);
+        }
+
+        void record(long time, int starCount, int forkCount) {
+            long bucket = resolution.bucketOf(time);
+            if (size > 0 && buckets[size - 1] >= bucket) {
+                stars[size - 1] = starCount;
+                forks[size - 1] = forkCount;
+                return;
+            }
+            if (size == buckets.length) {
+                int capacity = Math.min(Math.max(size * 2, 4), retention + 1);
+                buckets = Arrays.copyOf(buckets, Math.max(capacity, size + 1));
+                stars = Arrays.copyOf(stars, buckets.length);
+                forks = Arrays.copyOf(forks, buckets.length);
+            }
+            buckets[size] = bucket;
+            stars[size] = starCount;
+            forks[size] = forkCount;
+            size++;
+            evictBefore(bucket - retention + 1);
+        }
+
+        private void evictBefore(long oldestKept) {
+            int evicted = 0;
+            while (evicted < size - 1 && buckets[evicted] < oldestKept) {
+                evicted++;
+            }
+            if (evicted == 0) {
+                return;
+            }
+            hasBase = true;
+            baseStars = stars[evicted - 1];
+            baseForks = forks[evicted - 1];
+            size -= evicted;
+            System.arraycopy(buckets, evicted, buckets, 0, size);
+            System.arraycopy(stars, evicted, stars, 0, size);
+            System.arraycopy(forks, evicted, forks, 0, size);
+        }
+
+        /**
+         * Index of the last bucket at or before {@code bucket}, or -1.
+         */
+        private int indexAtOrBefore(long bucket) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (buckets[middle] <= bucket) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+
+        /**
+         * Stores the count as of {@code time} in {@code value[0]}; false if it is not known.
+         */
+        boolean valueAt(long time, Metric metric, int[] value) {
+            int index = indexAtOrBefore(resolution.bucketOf(time));
+            if (index >= 0) {
+                value[0] = metric == Metric.STARS ? stars[index] : forks[index];
+                return true;
+            }
+            if (hasBase) {
+                value[0] = metric == Metric.STARS ? baseStars : baseForks;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Stores the earliest known count in {@code value[0]} and returns the start of its bucket,
+         * or {@link Long#MIN_VALUE} if nothing is known.
+         */
+        long earliest(Metric metric, int[] value) {
+            if (size == 0) {
+                return Long.MIN_VALUE;
+            }
+            value[0] = metric == Metric.STARS ? stars[0] : forks[0];
+            return resolution.startOf(buckets[0]);
+        }
+
+        List<RepositoryTrend.Point> points(long from, long to, int maxPoints) {
+            long first = resolution.bucketOf(from);
+            long last = resolution.bucketOf(to);
+            if (last - first + 1 > maxPoints) {
+                throw new IllegalArgumentException("A trend is limited to " + maxPoints + " points");
+            }
+
+            List<RepositoryTrend.Point> points = new ArrayList<>((int) (last - first + 1));
+            int index = indexAtOrBefore(first);
+            boolean known = index >= 0 || hasBase;
+            int starCount = index >= 0 ? stars[index] : baseStars;
+            int forkCount = index >= 0 ? forks[index] : baseForks;
+            int next = index + 1;
+            for (long bucket = first; bucket <= last; bucket++) {
+                while (next < size && buckets[next] <= bucket) {
+                    starCount = stars[next];
+                    forkCount = forks[next];
+                    known = true;
+                    next++;
+                }
+                if (known) {
+                    points.add(new RepositoryTrend.Point(Instant.ofEpochSecond(resolution.startOf(bucket)), starCount, forkCount));
+                }
+            }
+            return points;
+        }
+
+        void writeTo(ByteSink out) {
+            out.writeVarLong(size);
+            out.write((byte) (hasBase ? 1 : 0));
+            if (hasBase) {
+                out.writeVarLong(zigzag(baseStars));
+                out.writeVarLong(zigzag(baseForks));
+            }
+            long previousBucket = 0;
+            int previousStars = 0;
+            int previousForks = 0;
+            for (int i = 0; i < size; i++) {
+                out.writeVarLong(zigzag(buckets[i] - previousBucket));
+                out.writeVarLong(zigzag(stars[i] - previousStars));
+                out.writeVarLong(zigzag(forks[i] - previousForks));
+                previousBucket = buckets[i];
+                previousStars = stars[i];
+                previousForks = forks[i];
+            }
+        }
+
+        void readFrom(ByteSource in) {
+            int count = (int) in.readVarLong();
+            hasBase = in.read() == 1;
+            if (hasBase) {
+                baseStars = (int) unzigzag(in.readVarLong());
+                baseForks = (int) unzigzag(in.readVarLong());
+            }
+            buckets = new long[Math.max(4, count)];
+            stars = new int[buckets.length];
+            forks = new int[buckets.length];
+            long bucket = 0;
+            int starCount = 0;
+            int forkCount = 0;
+            for (int i = 0; i < count; i++) {
+                bucket += unzigzag(in.readVarLong());
+                starCount += (int) unzigzag(in.readVarLong());
+                forkCount += (int) unzigzag(in.readVarLong());
+                buckets[i] = bucket;
+                stars[i] = starCount;
+                forks[i] = forkCount;
+            }
+            size = count;
+            // The retention may have been shortened since the history was written
+            if (size > 0) {
+                evictBefore(buckets[size - 1] - retention + 1);
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable byte array with unsigned LEB128 varints.
+     */
+    private static final class ByteSink {
+
+        private byte[] buffer;
+        private int size;
+
+        ByteSink(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void write(byte value) {
+            ensureCapacity(1);
+            buffer[size++] = value;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class ByteSource {
+
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+
+        ByteSource(byte[] buffer, int position) {
+            this(buffer, position, buffer.length);
+        }
+
+        ByteSource(byte[] buffer, int position, int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        int read() {
+            if (position >= limit) {
+                throw new IllegalStateException("Truncated repository history");
+            }
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint in repository history");
+        }
+
+        void skip(int length) {
+            if (length < 0 || position + length > limit) {
+                throw new IllegalStateException("Truncated repository history");
+            }
+            position += length;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int position() {
+            return position;
+        }
+
+        int remaining() {
+            return limit - position;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.repodashboard.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters for the sync pipeline, GitHub quota, webhooks and API result sizes, exposed through
+ * actuator at {@code /actuator/prometheus}. Request timers per endpoint come from Spring's own
+ * {@code http.server.requests} instrumentation.
+ */
+@Component
+public class RepositoryMetrics {
+
+    private final MeterRegistry registry;
+    private final Set<String> rateLimitSources = ConcurrentHashMap.newKeySet();
+
+    public RepositoryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * One GitHub API call; {@code outcome} is {@code ok}, {@code not_modified} or {@code error}.
+     */
+    public void recordGitHubRequest(String source, String outcome, long nanos) {
+        Timer.builder("github.api.requests")
+                .description("Latency of GitHub API calls, per page or enrichment call")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBytesReceived(String source, long bytes) {
+        DistributionSummary.builder("github.api.response.size")
+                .description("Body size of GitHub API responses")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordRepositoriesConverted(String source, int count) {
+        Counter.builder("github.repositories.converted")
+                .description("Repositories read from GitHub responses")
+                .tag("source", source)
+                .register(registry)
+                .increment(count);
+    }
+
+    /**
+     * Times a database write; {@code operation} is {@code reconcile}, {@code delta} or
+     * {@code enrichment}.
+     */
+    public <T> T timeDatabaseWrite(String operation, Supplier<T> write) {
+        return Timer.builder("repository.db.write")
+                .description("Time spent writing repository changes to the database")
+                .tag("operation", operation)
+                .register(registry)
+                .record(write);
+    }
+
+    /**
+     * One sync run; {@code outcome} is {@code changed}, {@code unchanged}, {@code not_modified},
+     * {@code partial} (some sources failed), {@code failed} or, on a clustered replica that is not
+     * the leader, {@code reloaded} (the leader's writes were loaded from the database).
+     */
+    public void recordSync(String outcome, long nanos) {
+        Timer.builder("repository.sync")
+                .description("Duration of repository syncs")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSyncChanges(int added, int updated, int removed) {
+        Counter.builder("repository.sync.changes").tag("change", "added").register(registry).increment(added);
+        Counter.builder("repository.sync.changes").tag("change", "updated").register(registry).increment(updated);
+        Counter.builder("repository.sync.changes").tag("change", "removed").register(registry).increment(removed);
+    }
+
+    /**
+     * Repositories handled by an enrichment pass; {@code outcome} is {@code enriched},
+     * {@code deferred} (rate limit reserve reached) or {@code failed}.
+     */
+    public void recordEnrichment(String outcome, int count) {
+        Counter.builder("repository.enrichment")
+                .description("Repositories processed by the enrichment stage")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(count);
+    }
+
+    /**
+     * Registers the rate limit gauges of a sync source the first time it reports its quota.
+     */
+    public void registerRateLimit(String source, ToDoubleFunction<String> remaining, ToDoubleFunction<String> limit) {
+        if (rateLimitSources.add(source)) {
+            Gauge.builder("github.ratelimit.remaining", source, remaining)
+                    .strongReference(true)
+                    .description("GitHub API calls left in the current rate limit window")
+                    .tag("source", source)
+                    .register(registry);
+            Gauge.builder("github.ratelimit.limit", source, limit)
+                    .strongReference(true)
+                    .description("GitHub API calls allowed per rate limit window")
+                    .tag("source", source)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * A webhook delivery; {@code outcome} is {@code queued}, {@code dropped}, {@code delta},
+     * {@code refresh} or {@code ignored}.
+     */
+    public void recordWebhook(String event, String outcome) {
+        Counter.builder("webhook.events")
+                .description("GitHub webhook deliveries by event type and outcome")
+                .tag("event", event)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public <T> void registerGauge(String name, String description, T target, ToDoubleFunction<T> value) {
+        Gauge.builder(name, target, value).description(description).register(registry);
+    }
+
+    /**
+     * Number of items (repositories, languages, ...) returned by an API endpoint.
+     */
+    public void recordResultSize(String endpoint, int items) {
+        DistributionSummary.builder("api.response.items")
+                .description("Items returned per API response")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(items);
+    }
+
+    public void recordResponseBytes(String endpoint, boolean gzip, int bytes) {
+        DistributionSummary.builder("api.response.size")
+                .description("Body size of API responses")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .tag("encoding", gzip ? "gzip" : "identity")
+                .register(registry)
+                .record(bytes);
+    }
+}
@@ -0,0 +1,389 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryPage;
+import com.github.repodashboard.dto.RepositoryQuery;
+import com.github.repodashboard.dto.RepositoryStats;
+import com.github.repodashboard.model.Repository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Evaluates {@link RepositoryQuery} requests against the current {@link RepositorySnapshot}.
+ *
+ * <p>Filters are resolved to a row bitset on the snapshot's {@link RepositoryColumns}, and sorting
+ * orders row numbers by primitive column values; repository objects are only materialized for the
+ * page being returned.
+ *
+ * <p>Sorted results are paged by keyset: the cursor carries the sort value and id of the last
+ * returned row, and the next page starts right after it in the (sort value, id) order. Results
+ * without an explicit sort (snapshot order, or relevance order for searches) are paged by offset.
+ */
+@Component
+public class RepositoryQueryService {
+
+    public enum SortField {
+        STARS("stars"), FORKS("forks"), UPDATED_AT("updatedAt"), NAME("name"),
+        OPEN_ISSUES("openIssues"), LAST_COMMIT_AT("lastCommitAt");
+
+        private final String parameter;
+
+        SortField(String parameter) {
+            this.parameter = parameter;
+        }
+
+        static SortField parse(String value) {
+            for (SortField field : values()) {
+                if (field.parameter.equalsIgnoreCase(value)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort field: " + value);
+        }
+    }
+
+    private static final Map<String, Function<Repository, Object>> FIELD_ACCESSORS = new LinkedHashMap<>();
+
+    static {
+        FIELD_ACCESSORS.put("id", Repository::getId);
+        FIELD_ACCESSORS.put("name", Repository::getName);
+        FIELD_ACCESSORS.put("fullName", Repository::getFullName);
+        FIELD_ACCESSORS.put("description", Repository::getDescription);
+        FIELD_ACCESSORS.put("htmlUrl", Repository::getHtmlUrl);
+        FIELD_ACCESSORS.put("stargazersCount", Repository::getStargazersCount);
+        FIELD_ACCESSORS.put("forksCount", Repository::getForksCount);
+        FIELD_ACCESSORS.put("language", Repository::getLanguage);
+        FIELD_ACCESSORS.put("createdAt", Repository::getCreatedAt);
+        FIELD_ACCESSORS.put("updatedAt", Repository::getUpdatedAt);
+        FIELD_ACCESSORS.put("isPrivate", Repository::getIsPrivate);
+        FIELD_ACCESSORS.put("isFork", Repository::getIsFork);
+        FIELD_ACCESSORS.put("source", Repository::getSource);
+        FIELD_ACCESSORS.put("topics", Repository::getTopics);
+        FIELD_ACCESSORS.put("languageBytes", Repository::getLanguageBytes);
+        FIELD_ACCESSORS.put("openIssuesCount", Repository::getOpenIssuesCount);
+        FIELD_ACCESSORS.put("lastCommitSha", Repository::getLastCommitSha);
+        FIELD_ACCESSORS.put("lastCommitAt", Repository::getLastCommitAt);
+        FIELD_ACCESSORS.put("enrichedAt", Repository::getEnrichedAt);
+    }
+
+    private static final String OFFSET_CURSOR = "offset";
+    private static final char CURSOR_SEPARATOR = '\u0000';
+
+    private final GitHubService gitHubService;
+    private final RepositorySearchIndex searchIndex;
+    private final int defaultSearchLimit;
+
+    public RepositoryQueryService(GitHubService gitHubService,
+                                  RepositorySearchIndex searchIndex,
+                                  @Value("${search.default-limit:100}") int defaultSearchLimit) {
+        this.gitHubService = gitHubService;
+        this.searchIndex = searchIndex;
+        this.defaultSearchLimit = defaultSearchLimit;
+    }
+
+    public RepositoryPage query(RepositoryQuery query) {
+        return query(gitHubService.getSnapshot(), query);
+    }
+
+    public RepositoryPage query(RepositorySnapshot snapshot, RepositoryQuery query) {
+        if (query.limit() != null && query.limit() <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        RepositoryColumns columns = snapshot.getColumns();
+        BitSet selection = select(columns, query);
+        boolean searching = hasText(query.search());
+
+        int[] rows;
+        if (searching) {
+            // Relevance order from the index, restricted to the rows passing the filters
+            rows = searchIndex.search(query.search(), Math.max(1, snapshot.size())).stream()
+                    .mapToInt(columns::rowOf)
+                    .filter(row -> row >= 0 && selection.get(row))
+                    .toArray();
+        } else {
+            rows = Arrays.stream(columns.snapshotOrder()).filter(selection::get).toArray();
+        }
+
+        SortField sortField = hasText(query.sort()) ? SortField.parse(query.sort())
+                : query.isPaginated() && !searching ? SortField.NAME : null;
+        if (sortField == null) {
+            // Unsorted requests without paging keep the historical behaviour: everything, or the
+            // top results for a search
+            int limit = query.limit() != null ? query.limit()
+                    : searching ? defaultSearchLimit : Math.max(1, rows.length);
+            return offsetPage(columns, rows, limit, query.cursor());
+        }
+
+        boolean descending = isDescending(sortField, query.order());
+        RepositoryColumns.RowComparator comparator = comparator(columns, sortField, descending);
+        RepositoryColumns.sort(rows, comparator);
+        int limit = query.limit() != null ? query.limit() : Math.max(1, rows.length);
+        return keysetPage(columns, rows, sortField, descending, limit, query.cursor());
+    }
+
+    /**
+     * Totals and language facets over the repositories matching the query's filters and search
+     * term; sorting and paging properties are ignored.
+     */
+    public RepositoryStats stats(RepositorySnapshot snapshot, RepositoryQuery query) {
+        RepositoryColumns columns = snapshot.getColumns();
+        BitSet selection = select(columns, query);
+        if (hasText(query.search())) {
+            BitSet hits = new BitSet(columns.size());
+            for (Long id : searchIndex.search(query.search(), Math.max(1, snapshot.size()))) {
+                int row = columns.rowOf(id);
+                if (row >= 0) {
+                    hits.set(row);
+                }
+            }
+            selection.and(hits);
+        }
+        return columns.aggregate(selection);
+    }
+
+    /**
+     * Reduces each repository to the requested properties, in the order they were requested.
+     */
+    public List<Map<String, Object>> project(List<Repository> repositories, Collection<String> fields) {
+        List<String> selected = new ArrayList<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (!FIELD_ACCESSORS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+
+        List<Map<String, Object>> projected = new ArrayList<>(repositories.size());
+        for (Repository repository : repositories) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selected) {
+                row.put(field, FIELD_ACCESSORS.get(field).apply(repository));
+            }
+            projected.add(row);
+        }
+        return projected;
+    }
+
+    private static BitSet select(RepositoryColumns columns, RepositoryQuery query) {
+        BitSet selection = columns.select(
+                hasText(query.language()) ? query.language() : null,
+                hasText(query.source()) ? query.source() : null,
+                query.isPrivate(),
+                query.isFork());
+        columns.refine(selection,
+                hasText(query.topic()) ? query.topic().trim() : null,
+                hasText(query.usesLanguage()) ? query.usesLanguage() : null,
+                query.hasOpenIssues(),
+                hasText(query.committedSince()) ? parseInstant(query.committedSince().trim()) : null);
+        return selection;
+    }
+
+    private static long parseInstant(String value) {
+        try {
+            return value.length() == 10
+                    ? LocalDate.parse(value).toEpochSecond(LocalTime.MIDNIGHT, ZoneOffset.UTC)
+                    : Instant.parse(value).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("committedSince must be an ISO-8601 instant or date");
+        }
+    }
+
+    private static RepositoryPage offsetPage(RepositoryColumns columns, int[] rows, int limit, String cursor) {
+        int start = 0;
+        if (cursor != null) {
+            String[] parts = decodeCursor(cursor);
+            if (!OFFSET_CURSOR.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            long offset = parseNumber(parts[2]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            start = (int) Math.min(offset, rows.length);
+        }
+        int end = (int) Math.min((long) start + limit, rows.length);
+        String nextCursor = end < rows.length ? encodeCursor(OFFSET_CURSOR, "", String.valueOf(end)) : null;
+        return new RepositoryPage(slice(columns, rows, start, end), nextCursor, rows.length);
+    }
+
+    private static RepositoryPage keysetPage(RepositoryColumns columns, int[] sorted, SortField sortField,
+                                             boolean descending, int limit, String cursor) {
+        String order = descending ? "desc" : "asc";
+        int start = 0;
+        if (cursor != null) {
+            String[] parts = decodeCursor(cursor);
+            if (!sortField.parameter.equals(parts[0]) || !order.equals(parts[1])) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            start = firstRowAfter(columns, sorted, sortField, descending, parts[2], parseNumber(parts[3]));
+        }
+
+        int end = (int) Math.min((long) start + limit, sorted.length);
+        String nextCursor = null;
+        if (end < sorted.length && end > start) {
+            int lastRow = sorted[end - 1];
+            nextCursor = encodeCursor(sortField.parameter, order, sortValue(sortField, columns, lastRow),
+                    String.valueOf(columns.id(lastRow)));
+        }
+        return new RepositoryPage(slice(columns, sorted, start, end), nextCursor, sorted.length);
+    }
+
+    private static RepositoryColumns.RowComparator comparator(RepositoryColumns columns, SortField sortField,
+                                                              boolean descending) {
+        RepositoryColumns.RowComparator bySortValue = switch (sortField) {
+            case STARS -> (left, right) -> Integer.compare(columns.stars(left), columns.stars(right));
+            case FORKS -> (left, right) -> Integer.compare(columns.forks(left), columns.forks(right));
+            case UPDATED_AT -> (left, right) -> Long.compare(columns.updatedAt(left), columns.updatedAt(right));
+            case NAME -> (left, right) -> String.CASE_INSENSITIVE_ORDER.compare(columns.name(left), columns.name(right));
+            case OPEN_ISSUES -> (left, right) -> Integer.compare(columns.openIssues(left), columns.openIssues(right));
+            case LAST_COMMIT_AT -> (left, right) -> Long.compare(columns.lastCommitAt(left), columns.lastCommitAt(right));
+        };
+        // Rows are numbered in id order, so the row tiebreak is the id tiebreak that makes the
+        // order total, which keyset paging relies on
+        return (left, right) -> {
+            int comparison = bySortValue.compare(left, right);
+            if (comparison != 0) {
+                return descending ? -comparison : comparison;
+            }
+            return Integer.compare(left, right);
+        };
+    }
+
+    /**
+     * Position of the first row that sorts after the cursor's (sort value, id) key.
+     */
+    private static int firstRowAfter(RepositoryColumns columns, int[] sorted, SortField sortField,
+                                     boolean descending, String value, long id) {
+        long numericValue;
+        try {
+            numericValue = switch (sortField) {
+                case STARS, FORKS, OPEN_ISSUES -> Integer.parseInt(value);
+                case UPDATED_AT -> RepositoryColumns.epochSecond(LocalDateTime.parse(value));
+                case LAST_COMMIT_AT -> Long.parseLong(value);
+                case NAME -> 0;
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int row = sorted[middle];
+            int comparison = switch (sortField) {
+                case STARS -> Long.compare(columns.stars(row), numericValue);
+                case FORKS -> Long.compare(columns.forks(row), numericValue);
+                case UPDATED_AT -> Long.compare(columns.updatedAt(row), numericValue);
+                case NAME -> String.CASE_INSENSITIVE_ORDER.compare(columns.name(row), value);
+                case OPEN_ISSUES -> Long.compare(columns.openIssues(row), numericValue);
+                case LAST_COMMIT_AT -> Long.compare(columns.lastCommitAt(row), numericValue);
+            };
+            if (descending) {
+                comparison = -comparison;
+            }
+            if (comparison == 0) {
+                comparison = Long.compare(columns.id(row), id);
+            }
+            if (comparison <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isDescending(SortField sortField, String order) {
+        if (!hasText(order)) {
+            return sortField != SortField.NAME;
+        }
+        if ("desc".equalsIgnoreCase(order)) {
+            return true;
+        }
+        if ("asc".equalsIgnoreCase(order)) {
+            return false;
+        }
+        throw new IllegalArgumentException("order must be 'asc' or 'desc'");
+    }
+
+    private static String sortValue(SortField sortField, RepositoryColumns columns, int row) {
+        Repository repository = columns.repository(row);
+        return switch (sortField) {
+            case STARS -> String.valueOf(repository.getStargazersCount());
+            case FORKS -> String.valueOf(repository.getForksCount());
+            case UPDATED_AT -> repository.getUpdatedAt().toString();
+            case NAME -> repository.getName();
+            // Column values, so that rows not enriched yet (sorted as 0) page consistently
+            case OPEN_ISSUES -> String.valueOf(columns.openIssues(row));
+            case LAST_COMMIT_AT -> String.valueOf(columns.lastCommitAt(row));
+        };
+    }
+
+    private static String encodeCursor(String sort, String order, String value) {
+        return encodeCursor(sort, order, value, "");
+    }
+
+    private static String encodeCursor(String sort, String order, String value, String id) {
+        String raw = sort + CURSOR_SEPARATOR + order + CURSOR_SEPARATOR + value + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns {@code [sort, order, value, id]}; {@code value} is the offset for offset cursors.
+     */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(String.valueOf(CURSOR_SEPARATOR), -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private static long parseNumber(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private static List<Repository> slice(RepositoryColumns columns, int[] rows, int start, int end) {
+        if (start >= end) {
+            return List.of();
+        }
+        List<Repository> page = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            page.add(columns.repository(rows[i]));
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,424 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.SyncResult;
+import com.github.repodashboard.model.Repository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Brings the {@code repositories} table in line with a freshly fetched repository list. Rows are
+ * matched by id and compared on {@code updatedAt}; only the rows that differ are written, as JDBC
+ * batches inside a single transaction, so readers never observe a partially synced table.
+ *
+ * <p>The fetched list is processed in chunks of {@code github.sync.batch-size}: each chunk looks up
+ * the stored versions of just its own ids and writes its own batches, so no map of the whole
+ * table's versions is built. The fetched list itself, the ids seen and the changed rows still
+ * grow with the number of repositories; they reference the rows the snapshot is built from, which
+ * are in memory anyway.
+ *
+ * <p>Only rows belonging to the sources that were actually synced are eligible for deletion, so a
+ * source that failed to fetch keeps its previously stored repositories.
+ *
+ * <p>Enriched details are written with the row; topics and language bytes live in child tables,
+ * which are replaced whenever their row is written.
+ *
+ * <p>Every clustered write also records the ids it touched under the data version it advanced to
+ * ({@link #recordChanges}), so replicas that do not sync read back only the rows changed since the
+ * version they hold ({@link #loadChanges}), and the whole table ({@link #loadAll()}) only when they
+ * start or have fallen further behind than the recorded changes reach.
+ */
+@Component
+public class RepositoryReconciler {
+
+    private static final String SELECT_IDS_SQL = "SELECT id, source FROM repositories";
+
+    private static final String SELECT_VERSIONS_SQL = "SELECT id, updated_at, source FROM repositories WHERE id IN (";
+
+    private static final String SELECT_ROW_SQL = "SELECT name, full_name, description, html_url, stargazers_count, " +
+            "forks_count, language, updated_at, is_private, is_fork, source FROM repositories WHERE id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO repositories " +
+            "(name, full_name, description, html_url, stargazers_count, forks_count, language, " +
+            "created_at, updated_at, is_private, is_fork, source, " +
+            "open_issues_count, last_commit_sha, last_commit_at, enriched_at, id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE repositories SET " +
+            "name = ?, full_name = ?, description = ?, html_url = ?, stargazers_count = ?, forks_count = ?, " +
+            "language = ?, created_at = ?, updated_at = ?, is_private = ?, is_fork = ?, source = ?, " +
+            "open_issues_count = ?, last_commit_sha = ?, last_commit_at = ?, enriched_at = ? WHERE id = ?";
+
+    private static final String UPDATE_DETAILS_SQL = "UPDATE repositories SET " +
+            "open_issues_count = ?, last_commit_sha = ?, last_commit_at = ?, enriched_at = ? WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM repositories WHERE id = ?";
+
+    private static final String DELETE_TOPICS_SQL = "DELETE FROM repository_topics WHERE repository_id = ?";
+
+    private static final String INSERT_TOPIC_SQL = "INSERT INTO repository_topics (repository_id, topic) VALUES (?, ?)";
+
+    private static final String DELETE_LANGUAGES_SQL = "DELETE FROM repository_languages WHERE repository_id = ?";
+
+    private static final String INSERT_LANGUAGE_SQL =
+            "INSERT INTO repository_languages (repository_id, language, bytes) VALUES (?, ?, ?)";
+
+    private static final String SELECT_ROWS_SQL = "SELECT id, name, full_name, description, html_url, " +
+            "stargazers_count, forks_count, language, created_at, updated_at, is_private, is_fork, source, " +
+            "open_issues_count, last_commit_sha, last_commit_at, enriched_at FROM repositories";
+
+    private static final String SELECT_ALL_SQL = SELECT_ROWS_SQL + " ORDER BY LOWER(full_name), id";
+
+    private static final String SELECT_TOPICS_SQL = "SELECT repository_id, topic FROM repository_topics";
+
+    private static final String SELECT_LANGUAGES_SQL = "SELECT repository_id, language, bytes FROM repository_languages";
+
+    private static final String LANGUAGE_ORDER_SQL = " ORDER BY repository_id, bytes DESC";
+
+    private static final String INSERT_CHANGE_SQL =
+            "INSERT INTO repository_changes (data_version, repository_id, removed) VALUES (?, ?, ?)";
+
+    private static final String PRUNE_CHANGES_SQL = "DELETE FROM repository_changes WHERE data_version <= ?";
+
+    private static final String COUNT_CHANGED_VERSIONS_SQL =
+            "SELECT COUNT(DISTINCT data_version) FROM repository_changes WHERE data_version > ? AND data_version <= ?";
+
+    private static final String SELECT_CHANGES_SQL = "SELECT repository_id, removed FROM repository_changes " +
+            "WHERE data_version > ? AND data_version <= ? ORDER BY data_version";
+
+    /**
+     * The rows written since a data version, as they are stored now, and the ids deleted since.
+     */
+    public record StoredChanges(List<Repository> written, List<Long> removed) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int changeRetentionVersions;
+
+    public RepositoryReconciler(JdbcTemplate jdbcTemplate,
+                                @Value("${github.sync.batch-size:500}") int batchSize,
+                                @Value("${cluster.change-retention-versions:1000}") int changeRetentionVersions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.changeRetentionVersions = Math.max(1, changeRetentionVersions);
+    }
+
+    private record StoredVersion(LocalDateTime updatedAt, String source) {
+
+        boolean matches(Repository repository) {
+            return Objects.equals(updatedAt, repository.getUpdatedAt()) && Objects.equals(source, repository.getSource());
+        }
+    }
+
+    /**
+     * The columns a webhook payload can change. GitHub does not always move {@code updated_at} with
+     * them (a star or a visibility change may not), so a delta compares them all.
+     */
+    private record StoredRow(String name, String fullName, String description, String htmlUrl, int stargazersCount,
+                             int forksCount, String language, LocalDateTime updatedAt, boolean isPrivate,
+                             boolean isFork, String source) {
+
+        boolean matches(Repository repository) {
+            return Objects.equals(name, repository.getName())
+                    && Objects.equals(fullName, repository.getFullName())
+                    && Objects.equals(description, repository.getDescription())
+                    && Objects.equals(htmlUrl, repository.getHtmlUrl())
+                    && Objects.equals(stargazersCount, repository.getStargazersCount())
+                    && Objects.equals(forksCount, repository.getForksCount())
+                    && Objects.equals(language, repository.getLanguage())
+                    && Objects.equals(updatedAt, repository.getUpdatedAt())
+                    && Objects.equals(isPrivate, repository.getIsPrivate())
+                    && Objects.equals(isFork, repository.getIsFork())
+                    && Objects.equals(source, repository.getSource());
+        }
+    }
+
+    @Transactional
+    public SyncResult reconcile(List<Repository> fetched, Set<String> syncedSources) {
+        List<Repository> inserts = new ArrayList<>();
+        List<Repository> updates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        List<Repository> chunk = new ArrayList<>(batchSize);
+        for (Repository repository : fetched) {
+            if (!seen.add(repository.getId())) {
+                continue;
+            }
+            chunk.add(repository);
+            if (chunk.size() == batchSize) {
+                reconcileChunk(chunk, inserts, updates);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            reconcileChunk(chunk, inserts, updates);
+        }
+
+        List<Long> deletes = new ArrayList<>();
+        jdbcTemplate.query(SELECT_IDS_SQL, resultSet -> {
+            long storedId = resultSet.getLong(1);
+            String storedSource = resultSet.getString(2);
+            boolean synced = storedSource == null || syncedSources.contains(storedSource);
+            if (synced && !seen.contains(storedId)) {
+                deletes.add(storedId);
+            }
+        });
+        deleteRows(deletes);
+
+        int unchanged = seen.size() - inserts.size() - updates.size();
+        return new SyncResult(new RepositoryChangeSet(inserts, updates, deletes), unchanged);
+    }
+
+    private void reconcileChunk(List<Repository> chunk, List<Repository> inserts, List<Repository> updates) {
+        String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        Map<Long, StoredVersion> storedVersions = new HashMap<>(chunk.size() * 2);
+        jdbcTemplate.query(SELECT_VERSIONS_SQL + placeholders + ")", resultSet -> {
+            storedVersions.put(resultSet.getLong(1),
+                    new StoredVersion(resultSet.getObject(2, LocalDateTime.class), resultSet.getString(3)));
+        }, chunk.stream().map(Repository::getId).toArray());
+
+        List<Repository> chunkInserts = new ArrayList<>();
+        List<Repository> chunkUpdates = new ArrayList<>();
+        for (Repository repository : chunk) {
+            StoredVersion stored = storedVersions.get(repository.getId());
+            if (stored == null) {
+                chunkInserts.add(repository);
+            } else if (!stored.matches(repository)) {
+                chunkUpdates.add(repository);
+            }
+        }
+
+        // INSERT and UPDATE bind the same columns in the same order, with the id last
+        jdbcTemplate.batchUpdate(INSERT_SQL, chunkInserts, batchSize, RepositoryReconciler::bindRow);
+        jdbcTemplate.batchUpdate(UPDATE_SQL, chunkUpdates, batchSize, RepositoryReconciler::bindRow);
+        replaceDetails(chunkUpdates, true);
+        replaceDetails(chunkInserts, false);
+        inserts.addAll(chunkInserts);
+        updates.addAll(chunkUpdates);
+    }
+
+    /**
+     * Applies single-row changes, e.g. from a webhook payload, without looking at the rest of the table.
+     * Unlike {@link #reconcile}, a row counts as changed when any of its columns differ, not only
+     * {@code updated_at}.
+     */
+    @Transactional
+    public SyncResult applyDelta(List<Repository> upserts, List<Long> removals) {
+        List<Repository> inserts = new ArrayList<>();
+        List<Repository> updates = new ArrayList<>();
+        int unchanged = 0;
+        for (Repository repository : upserts) {
+            List<StoredRow> storedRow = jdbcTemplate.query(SELECT_ROW_SQL,
+                    (resultSet, rowNum) -> new StoredRow(resultSet.getString(1), resultSet.getString(2),
+                            resultSet.getString(3), resultSet.getString(4), resultSet.getInt(5), resultSet.getInt(6),
+                            resultSet.getString(7), resultSet.getObject(8, LocalDateTime.class), resultSet.getBoolean(9),
+                            resultSet.getBoolean(10), resultSet.getString(11)),
+                    repository.getId());
+            if (storedRow.isEmpty()) {
+                inserts.add(repository);
+            } else if (!storedRow.get(0).matches(repository)) {
+                updates.add(repository);
+            } else {
+                unchanged++;
+            }
+        }
+
+        List<Long> deletes = new ArrayList<>();
+        for (Long id : removals) {
+            jdbcTemplate.update(DELETE_TOPICS_SQL, id);
+            jdbcTemplate.update(DELETE_LANGUAGES_SQL, id);
+            if (jdbcTemplate.update(DELETE_SQL, id) > 0) {
+                deletes.add(id);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, batchSize, RepositoryReconciler::bindRow);
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, batchSize, RepositoryReconciler::bindRow);
+        replaceDetails(updates, true);
+        replaceDetails(inserts, false);
+
+        return new SyncResult(new RepositoryChangeSet(inserts, updates, deletes), unchanged);
+    }
+
+    /**
+     * Writes the enriched details of rows that are otherwise unchanged.
+     */
+    @Transactional
+    public int applyDetails(List<Repository> enriched) {
+        jdbcTemplate.batchUpdate(UPDATE_DETAILS_SQL, enriched, batchSize, (statement, repository) -> {
+            bindDetails(statement, repository, 1);
+            statement.setLong(5, repository.getId());
+        });
+        replaceDetails(enriched, true);
+        return enriched.size();
+    }
+
+    /**
+     * Reads every stored repository with its details, ordered by full name as the sync fetches them.
+     */
+    public List<Repository> loadAll() {
+        return load(SELECT_ALL_SQL, SELECT_TOPICS_SQL, SELECT_LANGUAGES_SQL + LANGUAGE_ORDER_SQL);
+    }
+
+    /**
+     * Records which rows a write that advanced the shared data to {@code dataVersion} touched, and
+     * forgets the changes of versions more than {@code cluster.change-retention-versions} older.
+     * Must run in the transaction of the write.
+     */
+    public void recordChanges(long dataVersion, Collection<Long> writtenIds, Collection<Long> removedIds) {
+        List<Object[]> rows = new ArrayList<>(writtenIds.size() + removedIds.size());
+        writtenIds.forEach(id -> rows.add(new Object[] {dataVersion, id, false}));
+        removedIds.forEach(id -> rows.add(new Object[] {dataVersion, id, true}));
+        jdbcTemplate.batchUpdate(INSERT_CHANGE_SQL, rows);
+        jdbcTemplate.update(PRUNE_CHANGES_SQL, dataVersion - changeRetentionVersions);
+    }
+
+    /**
+     * Reads the rows changed after {@code sinceVersion} up to {@code dataVersion}, or nothing when
+     * the recorded changes no longer cover every version in between and the table has to be read
+     * whole. A row written and later deleted is only reported as deleted.
+     */
+    public Optional<StoredChanges> loadChanges(long sinceVersion, long dataVersion) {
+        Long versions = jdbcTemplate.queryForObject(COUNT_CHANGED_VERSIONS_SQL, Long.class, sinceVersion, dataVersion);
+        if (versions == null || versions != dataVersion - sinceVersion) {
+            return Optional.empty();
+        }
+        // Later versions override earlier ones
+        Map<Long, Boolean> removedById = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_CHANGES_SQL, resultSet -> {
+            long id = resultSet.getLong(1);
+            removedById.remove(id);
+            removedById.put(id, resultSet.getBoolean(2));
+        }, sinceVersion, dataVersion);
+
+        List<Long> writtenIds = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        removedById.forEach((id, isRemoved) -> (isRemoved ? removed : writtenIds).add(id));
+        List<Repository> written = new ArrayList<>(writtenIds.size());
+        for (int from = 0; from < writtenIds.size(); from += batchSize) {
+            List<Long> chunk = writtenIds.subList(from, Math.min(from + batchSize, writtenIds.size()));
+            String in = " WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            String childIn = " WHERE repository_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            written.addAll(load(SELECT_ROWS_SQL + in, SELECT_TOPICS_SQL + childIn,
+                    SELECT_LANGUAGES_SQL + childIn + LANGUAGE_ORDER_SQL, chunk.toArray()));
+        }
+        return Optional.of(new StoredChanges(written, removed));
+    }
+
+    private List<Repository> load(String rowsSql, String topicsSql, String languagesSql, Object... ids) {
+        List<Repository> repositories = new ArrayList<>();
+        Map<Long, Repository> byId = new HashMap<>();
+        jdbcTemplate.query(rowsSql, resultSet -> {
+            Repository repository = new Repository(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                    resultSet.getString(4), resultSet.getString(5), resultSet.getInt(6), resultSet.getInt(7),
+                    resultSet.getString(8), resultSet.getObject(9, LocalDateTime.class),
+                    resultSet.getObject(10, LocalDateTime.class), resultSet.getBoolean(11), resultSet.getBoolean(12));
+            repository.setSource(resultSet.getString(13));
+            repository.setOpenIssuesCount(resultSet.getObject(14, Integer.class));
+            repository.setLastCommitSha(resultSet.getString(15));
+            repository.setLastCommitAt(resultSet.getObject(16, LocalDateTime.class));
+            repository.setEnrichedAt(resultSet.getObject(17, LocalDateTime.class));
+            // The child tables cannot tell "no topics" from "not enriched yet", enrichedAt can
+            if (repository.getEnrichedAt() != null) {
+                repository.setTopics(new ArrayList<>());
+                repository.setLanguageBytes(new LinkedHashMap<>());
+            }
+            repositories.add(repository);
+            byId.put(repository.getId(), repository);
+        }, ids);
+        jdbcTemplate.query(topicsSql, resultSet -> {
+            Repository repository = byId.get(resultSet.getLong(1));
+            if (repository != null && repository.getTopics() != null) {
+                repository.getTopics().add(resultSet.getString(2));
+            }
+        }, ids);
+        jdbcTemplate.query(languagesSql, resultSet -> {
+            Repository repository = byId.get(resultSet.getLong(1));
+            if (repository != null && repository.getLanguageBytes() != null) {
+                repository.getLanguageBytes().put(resultSet.getString(2), resultSet.getLong(3));
+            }
+        }, ids);
+        return repositories;
+    }
+
+    private void deleteRows(List<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE_TOPICS_SQL, ids, batchSize, (statement, id) -> statement.setLong(1, id));
+        jdbcTemplate.batchUpdate(DELETE_LANGUAGES_SQL, ids, batchSize, (statement, id) -> statement.setLong(1, id));
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids, batchSize, (statement, id) -> statement.setLong(1, id));
+    }
+
+    /**
+     * Rewrites the topic and language rows of {@code repositories}; {@code existing} rows have old
+     * ones to remove first.
+     */
+    private void replaceDetails(List<Repository> repositories, boolean existing) {
+        if (existing) {
+            List<Long> ids = repositories.stream().map(Repository::getId).toList();
+            jdbcTemplate.batchUpdate(DELETE_TOPICS_SQL, ids, batchSize, (statement, id) -> statement.setLong(1, id));
+            jdbcTemplate.batchUpdate(DELETE_LANGUAGES_SQL, ids, batchSize, (statement, id) -> statement.setLong(1, id));
+        }
+
+        List<Object[]> topics = new ArrayList<>();
+        List<Object[]> languages = new ArrayList<>();
+        for (Repository repository : repositories) {
+            if (repository.getTopics() != null) {
+                for (String topic : repository.getTopics()) {
+                    topics.add(new Object[] {repository.getId(), topic});
+                }
+            }
+            if (repository.getLanguageBytes() != null) {
+                repository.getLanguageBytes().forEach((language, bytes) ->
+                        languages.add(new Object[] {repository.getId(), language, bytes}));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_TOPIC_SQL, topics, batchSize, (statement, row) -> {
+            statement.setLong(1, (Long) row[0]);
+            statement.setString(2, (String) row[1]);
+        });
+        jdbcTemplate.batchUpdate(INSERT_LANGUAGE_SQL, languages, batchSize, (statement, row) -> {
+            statement.setLong(1, (Long) row[0]);
+            statement.setString(2, (String) row[1]);
+            statement.setLong(3, (Long) row[2]);
+        });
+    }
+
+    private static void bindRow(PreparedStatement statement, Repository repository) throws SQLException {
+        statement.setString(1, repository.getName());
+        statement.setString(2, repository.getFullName());
+        statement.setString(3, repository.getDescription());
+        statement.setString(4, repository.getHtmlUrl());
+        statement.setInt(5, repository.getStargazersCount());
+        statement.setInt(6, repository.getForksCount());
+        statement.setString(7, repository.getLanguage());
+        statement.setObject(8, repository.getCreatedAt());
+        statement.setObject(9, repository.getUpdatedAt());
+        statement.setBoolean(10, repository.getIsPrivate());
+        statement.setBoolean(11, repository.getIsFork());
+        statement.setString(12, repository.getSource());
+        bindDetails(statement, repository, 13);
+        statement.setLong(17, repository.getId());
+    }
+
+    private static void bindDetails(PreparedStatement statement, Repository repository, int index) throws SQLException {
+        statement.setObject(index, repository.getOpenIssuesCount(), Types.INTEGER);
+        statement.setString(index + 1, repository.getLastCommitSha());
+        statement.setObject(index + 2, repository.getLastCommitAt());
+        statement.setObject(index + 3, repository.getEnrichedAt());
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.repodashboard.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Schedules the periodic repository refresh with an interval derived from GitHub's rate limit
+ * headers instead of a fixed rate. While quota is plentiful the refresh runs every
+ * {@code github.refresh.min-interval-ms}; as the remaining quota shrinks the interval stretches so
+ * that the remaining calls (minus a reserve for webhooks and manual refreshes) last until the
+ * window resets.
+ */
+@Component
+public class RepositoryRefreshScheduler implements SchedulingConfigurer {
+
+    private final GitHubService gitHubService;
+    private final GitHubRepositoryFetcher repositoryFetcher;
+    private final GitHubRateLimitTracker rateLimitTracker;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final int reservedRequests;
+
+    public RepositoryRefreshScheduler(GitHubService gitHubService,
+                                      GitHubRepositoryFetcher repositoryFetcher,
+                                      GitHubRateLimitTracker rateLimitTracker,
+                                      @Value("${github.refresh.min-interval-ms:30000}") long minIntervalMs,
+                                      @Value("${github.refresh.max-interval-ms:300000}") long maxIntervalMs,
+                                      @Value("${github.refresh.reserved-requests:500}") int reservedRequests) {
+        this.gitHubService = gitHubService;
+        this.repositoryFetcher = repositoryFetcher;
+        this.rateLimitTracker = rateLimitTracker;
+        this.minInterval = Duration.ofMillis(minIntervalMs);
+        this.maxInterval = Duration.ofMillis(Math.max(minIntervalMs, maxIntervalMs));
+        this.reservedRequests = reservedRequests;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(gitHubService::scheduledRepositoryRefresh, this::nextExecution);
+    }
+
+    private Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        if (lastCompletion == null) {
+            return Instant.now();
+        }
+        return lastCompletion.plus(nextInterval(lastCompletion));
+    }
+
+    Duration nextInterval(Instant now) {
+        GitHubRateLimitTracker.RateLimitStatus status = rateLimitTracker.current();
+        if (!status.isKnown()) {
+            return minInterval;
+        }
+
+        Duration untilReset = Duration.between(now, status.resetAt());
+        if (untilReset.isNegative() || untilReset.isZero()) {
+            return minInterval;
+        }
+
+        // A refresh costs at most one call per page; 304 responses are free, so this is an upper bound
+        int callsPerRefresh = Math.max(1, repositoryFetcher.getLastPageCount());
+        int available = status.remaining() - reservedRequests;
+        if (available < callsPerRefresh) {
+            // Out of budget: wait for the window to reset, even if that exceeds the max interval
+            return untilReset.plusSeconds(1);
+        }
+
+        long refreshesLeft = available / callsPerRefresh;
+        Duration paced = untilReset.dividedBy(refreshesLeft);
+        if (paced.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return paced.compareTo(maxInterval) > 0 ? maxInterval : paced;
+    }
+}
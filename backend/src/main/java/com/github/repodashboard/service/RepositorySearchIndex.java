@@ -0,0 +1,200 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.model.Repository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process n-gram index over repository name, full name and description.
+ *
+ * <p>Every 1-, 2- and 3-character gram of the lower-cased fields maps to the ids of the repositories
+ * containing it. A query is answered by intersecting the posting sets of its trigrams (or looking up
+ * its single gram when it is shorter than three characters), then verifying and scoring only those
+ * candidates, so cost depends on the number of matches rather than on catalogue size. The index is
+ * updated incrementally from each {@link RepositoryChangeEvent}.
+ */
+@Component
+public class RepositorySearchIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    private record IndexedDocument(Long id, String name, String fullName, String description, int stars, long[] grams) {}
+
+    private record ScoredMatch(IndexedDocument document, int score) {}
+
+    private static final Comparator<ScoredMatch> RANKING = Comparator
+            .comparingInt(ScoredMatch::score).reversed()
+            .thenComparing(Comparator.comparingInt((ScoredMatch match) -> match.document().stars()).reversed())
+            .thenComparing(match -> match.document().name());
+
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener
+    public void onRepositoryChange(RepositoryChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!event.previous().isLoaded()) {
+                documents.clear();
+                postings.clear();
+                event.current().getRepositories().forEach(this::index);
+                return;
+            }
+            RepositoryChangeSet changes = event.changes();
+            changes.removed().forEach(this::remove);
+            changes.updated().forEach(this::index);
+            changes.added().forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the repositories whose name, full name or description contains {@code term}
+     * (case-insensitively), best matches first, at most {@code limit} of them.
+     */
+    public List<Long> search(String term, int limit) {
+        String query = normalize(term);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<ScoredMatch> matches = new ArrayList<>();
+            for (Long id : candidates(query)) {
+                IndexedDocument document = documents.get(id);
+                int score = score(document, query);
+                if (score > 0) {
+                    matches.add(new ScoredMatch(document, score));
+                }
+            }
+            matches.sort(RANKING);
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                ids.add(matches.get(i).document().id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() < MAX_GRAM) {
+            return postings.getOrDefault(gram(query, 0, query.length()), Set.of());
+        }
+
+        List<Set<Long>> postingSets = new ArrayList<>();
+        Set<Long> distinctGrams = new HashSet<>();
+        for (int i = 0; i + MAX_GRAM <= query.length(); i++) {
+            long gram = gram(query, i, MAX_GRAM);
+            if (distinctGrams.add(gram)) {
+                Set<Long> posting = postings.get(gram);
+                if (posting == null) {
+                    return Set.of();
+                }
+                postingSets.add(posting);
+            }
+        }
+        postingSets.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(postingSets.get(0));
+        for (int i = 1; i < postingSets.size() && !result.isEmpty(); i++) {
+            result.retainAll(postingSets.get(i));
+        }
+        return result;
+    }
+
+    private static int score(IndexedDocument document, String query) {
+        if (document.name().equals(query)) {
+            return 100;
+        }
+        if (document.name().startsWith(query)) {
+            return 60;
+        }
+        if (document.name().contains(query)) {
+            return 40;
+        }
+        if (document.fullName().contains(query)) {
+            return 20;
+        }
+        return document.description().contains(query) ? 10 : 0;
+    }
+
+    private void index(Repository repository) {
+        remove(repository.getId());
+
+        String name = normalize(repository.getName());
+        String fullName = normalize(repository.getFullName());
+        String description = normalize(repository.getDescription());
+
+        Set<Long> grams = new HashSet<>();
+        addGrams(grams, name);
+        addGrams(grams, fullName);
+        addGrams(grams, description);
+
+        long[] gramArray = new long[grams.size()];
+        int i = 0;
+        for (Long gram : grams) {
+            gramArray[i++] = gram;
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(repository.getId());
+        }
+
+        int stars = repository.getStargazersCount() != null ? repository.getStargazersCount() : 0;
+        documents.put(repository.getId(), new IndexedDocument(repository.getId(), name, fullName, description, stars, gramArray));
+    }
+
+    private void remove(Long id) {
+        IndexedDocument document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (long gram : document.grams()) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void addGrams(Set<Long> grams, String text) {
+        for (int start = 0; start < text.length(); start++) {
+            for (int length = 1; length <= MAX_GRAM && start + length <= text.length(); length++) {
+                grams.add(gram(text, start, length));
+            }
+        }
+    }
+
+    /**
+     * Packs up to three UTF-16 chars and the gram length into a single long key.
+     */
+    private static long gram(String text, int start, int length) {
+        long key = length;
+        for (int i = 0; i < length; i++) {
+            key = (key << 16) | text.charAt(start + i);
+        }
+        return key;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
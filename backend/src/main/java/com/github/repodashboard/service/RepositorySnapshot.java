@@ -0,0 +1,85 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.model.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of every repository, built once per sync and shared by all readers.
+ * The {@link Repository} instances it holds are detached copies that are never mutated after the
+ * snapshot is published; lookups, filters and aggregates go through its {@link RepositoryColumns}.
+ *
+ * <p>Versions only count within an epoch: a random id drawn when an instance starts without a
+ * persisted snapshot, carried over by the snapshot file and shared through the database by
+ * clustered replicas. ETags and change feed ids name both, so a client never mistakes version 5 of
+ * one dataset for version 5 of another.
+ */
+public final class RepositorySnapshot {
+
+    private static final RepositorySnapshot EMPTY = new RepositorySnapshot("", 0, List.of());
+
+    private final String epoch;
+    private final long version;
+    private final Instant builtAt;
+    private final List<Repository> repositories;
+    private final RepositoryColumns columns;
+
+    RepositorySnapshot(String epoch, long version, Collection<Repository> repositories) {
+        this.epoch = epoch;
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.repositories = List.copyOf(repositories);
+        this.columns = this.repositories.isEmpty() ? RepositoryColumns.empty() : new RepositoryColumns(this.repositories);
+    }
+
+    public static RepositorySnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Whether a sync has ever produced this snapshot, as opposed to the empty placeholder used at startup.
+     */
+    public boolean isLoaded() {
+        return version > 0;
+    }
+
+    public String getEpoch() { return epoch; }
+
+    public long getVersion() { return version; }
+
+    public Instant getBuiltAt() { return builtAt; }
+
+    public List<Repository> getRepositories() { return repositories; }
+
+    public RepositoryColumns getColumns() { return columns; }
+
+    public Repository getRepository(Long id) {
+        int row = id != null ? columns.rowOf(id) : -1;
+        return row >= 0 ? columns.repository(row) : null;
+    }
+
+    /**
+     * Repositories with the given language, in snapshot order.
+     */
+    public List<Repository> getRepositoriesByLanguage(String language) {
+        BitSet selection = columns.select(language, null, null, null);
+        List<Repository> matches = new ArrayList<>(selection.cardinality());
+        for (int row : columns.snapshotOrder()) {
+            if (selection.get(row)) {
+                matches.add(columns.repository(row));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Distinct languages, sorted alphabetically.
+     */
+    public List<String> getLanguages() { return columns.languages(); }
+
+    public int size() { return repositories.size(); }
+}
@@ -0,0 +1,430 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.model.Repository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists the repository snapshot and its sync metadata to a compact binary file so that a restart
+ * can serve the last known data immediately and revalidate it in the background.
+ *
+ * <p>The file is a fixed header (magic, format version, payload length, CRC32 of the payload)
+ * followed by the payload: data version, last sync time, the repositories and the conditional
+ * request state (ETag, Last-Modified and row ids) of every cached GitHub page, since format
+ * version 2 the exported star and fork history, since version 3 the enriched details of each
+ * repository, and since version 4 the data epoch. Older versions are still read. It is written to a
+ * temporary file, forced to disk and renamed over the previous one, so readers only ever see a
+ * complete file. On startup it is memory-mapped and decoded in one sequential pass. A file with an
+ * unknown format version, a bad checksum or a truncated payload is ignored and the application
+ * falls back to a cold sync.
+ *
+ * <p>Writes run on a dedicated thread and are coalesced: while a write is pending, further requests
+ * are absorbed by it, and the state to write is captured when the write starts.
+ */
+@Component
+public class RepositorySnapshotFile {
+
+    /**
+     * Everything needed to serve and revalidate a snapshot after a restart.
+     */
+    public record PersistedSnapshot(String epoch,
+                                    long version,
+                                    Instant syncedAt,
+                                    List<Repository> repositories,
+                                    List<GitHubRepositoryFetcher.PageState> pages,
+                                    byte[] history) {}
+
+    private static final Logger log = LoggerFactory.getLogger(RepositorySnapshotFile.class);
+
+    private static final int MAGIC = 0x52445348; // "RDSH"
+    private static final int FORMAT_VERSION = 4;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int PRIVATE_FLAG = 1;
+    private static final int FORK_FLAG = 2;
+
+    private final Path path;
+    private final boolean enabled;
+    private final ExecutorService writeExecutor;
+    private final AtomicBoolean writePending = new AtomicBoolean();
+
+    public RepositorySnapshotFile(@Value("${github.snapshot.path:data/repository-snapshot.bin}") String path,
+                                  @Value("${github.snapshot.enabled:true}") boolean enabled) {
+        this.path = Path.of(path).toAbsolutePath();
+        this.enabled = enabled;
+        this.writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a write of the state {@code snapshot} returns when the write starts.
+     */
+    public void requestWrite(Supplier<PersistedSnapshot> snapshot) {
+        if (!enabled || !writePending.compareAndSet(false, true)) {
+            return;
+        }
+        writeExecutor.execute(() -> {
+            // Clear the flag first so changes published during the write schedule another one
+            writePending.set(false);
+            try {
+                write(snapshot.get());
+            } catch (Exception e) {
+                log.warn("Writing repository snapshot failed path={}", path, e);
+            }
+        });
+    }
+
+    public Optional<PersistedSnapshot> read() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                log.warn("Ignoring truncated repository snapshot path={} bytes={}", path, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int magic = buffer.getInt();
+            int formatVersion = buffer.getInt();
+            long payloadLength = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (magic != MAGIC) {
+                log.warn("Ignoring repository snapshot with unknown magic path={}", path);
+                return Optional.empty();
+            }
+            if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+                log.info("Ignoring repository snapshot of format version {} (expected {}) path={}",
+                        formatVersion, FORMAT_VERSION, path);
+                return Optional.empty();
+            }
+            if (payloadLength != size - HEADER_SIZE) {
+                log.warn("Ignoring truncated repository snapshot path={} bytes={} expected={}",
+                        path, size, payloadLength + HEADER_SIZE);
+                return Optional.empty();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_SIZE, (int) payloadLength));
+            if (crc.getValue() != checksum) {
+                log.warn("Ignoring repository snapshot with a bad checksum path={}", path);
+                return Optional.empty();
+            }
+
+            PersistedSnapshot snapshot = new Decoder(buffer, formatVersion).snapshot();
+            log.info("Read repository snapshot path={} version={} repositories={} pages={} bytes={} durationMs={}",
+                    path, snapshot.version(), snapshot.repositories().size(), snapshot.pages().size(), size,
+                    (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(snapshot);
+        } catch (NoSuchFileException e) {
+            log.info("No repository snapshot found path={}", path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable repository snapshot path={}", path, e);
+        }
+        return Optional.empty();
+    }
+
+    void write(PersistedSnapshot snapshot) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(path.getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        long size;
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            encode(snapshot, out);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(out.size())
+                    .putLong(checked.getChecksum().getValue())
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+            size = HEADER_SIZE + (long) out.size();
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.debug("Wrote repository snapshot path={} version={} repositories={} bytes={} durationMs={}",
+                path, snapshot.version(), snapshot.repositories().size(), size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void encode(PersistedSnapshot snapshot, DataOutputStream out) throws IOException {
+        out.writeLong(snapshot.version());
+        out.writeLong(snapshot.syncedAt() != null ? snapshot.syncedAt().toEpochMilli() : NO_TIMESTAMP);
+
+        out.writeInt(snapshot.repositories().size());
+        for (Repository repository : snapshot.repositories()) {
+            out.writeLong(repository.getId());
+            writeString(out, repository.getName());
+            writeString(out, repository.getFullName());
+            writeString(out, repository.getDescription());
+            writeString(out, repository.getHtmlUrl());
+            out.writeInt(repository.getStargazersCount() != null ? repository.getStargazersCount() : 0);
+            out.writeInt(repository.getForksCount() != null ? repository.getForksCount() : 0);
+            writeString(out, repository.getLanguage());
+            out.writeLong(epochSecond(repository.getCreatedAt()));
+            out.writeLong(epochSecond(repository.getUpdatedAt()));
+            out.writeByte((Boolean.TRUE.equals(repository.getIsPrivate()) ? PRIVATE_FLAG : 0)
+                    | (Boolean.TRUE.equals(repository.getIsFork()) ? FORK_FLAG : 0));
+            writeString(out, repository.getSource());
+            writeDetails(out, repository);
+        }
+
+        out.writeInt(snapshot.pages().size());
+        for (GitHubRepositoryFetcher.PageState page : snapshot.pages()) {
+            writeString(out, page.source());
+            out.writeInt(page.page());
+            writeString(out, page.etag());
+            writeString(out, page.lastModified());
+            out.writeInt(page.lastPage());
+            out.writeInt(page.ids().length);
+            for (long id : page.ids()) {
+                out.writeLong(id);
+            }
+        }
+
+        byte[] history = snapshot.history();
+        out.writeInt(history != null ? history.length : -1);
+        if (history != null) {
+            out.write(history);
+        }
+        writeString(out, snapshot.epoch());
+    }
+
+    private static void writeDetails(DataOutputStream out, Repository repository) throws IOException {
+        out.writeInt(repository.getOpenIssuesCount() != null ? repository.getOpenIssuesCount() : -1);
+        writeString(out, repository.getLastCommitSha());
+        out.writeLong(epochSecond(repository.getLastCommitAt()));
+        out.writeLong(epochSecond(repository.getEnrichedAt()));
+
+        List<String> topics = repository.getTopics();
+        out.writeInt(topics != null ? topics.size() : -1);
+        if (topics != null) {
+            for (String topic : topics) {
+                writeString(out, topic);
+            }
+        }
+        Map<String, Long> languageBytes = repository.getLanguageBytes();
+        out.writeInt(languageBytes != null ? languageBytes.size() : -1);
+        if (languageBytes != null) {
+            for (Map.Entry<String, Long> language : languageBytes.entrySet()) {
+                writeString(out, language.getKey());
+                out.writeLong(language.getValue());
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static long epochSecond(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : NO_TIMESTAMP;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExecutor.shutdown();
+    }
+
+    /**
+     * Reads the payload of a mapped snapshot file. Languages and sources repeat across rows, so
+     * their decoded strings are shared.
+     */
+    private static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private final int formatVersion;
+        private final Map<String, String> shared = new HashMap<>();
+        private byte[] scratch = new byte[256];
+
+        Decoder(ByteBuffer buffer, int formatVersion) {
+            this.buffer = buffer;
+            this.formatVersion = formatVersion;
+        }
+
+        PersistedSnapshot snapshot() {
+            long version = buffer.getLong();
+            long syncedAt = buffer.getLong();
+
+            int repositoryCount = count();
+            List<Repository> repositories = new ArrayList<>(repositoryCount);
+            for (int i = 0; i < repositoryCount; i++) {
+                Repository repository = new Repository();
+                repository.setId(buffer.getLong());
+                repository.setName(string());
+                repository.setFullName(string());
+                repository.setDescription(string());
+                repository.setHtmlUrl(string());
+                repository.setStargazersCount(buffer.getInt());
+                repository.setForksCount(buffer.getInt());
+                repository.setLanguage(sharedString());
+                repository.setCreatedAt(timestamp(buffer.getLong()));
+                repository.setUpdatedAt(timestamp(buffer.getLong()));
+                int flags = buffer.get();
+                repository.setIsPrivate((flags & PRIVATE_FLAG) != 0);
+                repository.setIsFork((flags & FORK_FLAG) != 0);
+                repository.setSource(sharedString());
+                if (formatVersion >= 3) {
+                    readDetails(repository);
+                }
+                repositories.add(repository);
+            }
+
+            int pageCount = count();
+            List<GitHubRepositoryFetcher.PageState> pages = new ArrayList<>(pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                String source = sharedString();
+                int page = buffer.getInt();
+                String etag = string();
+                String lastModified = string();
+                int lastPage = buffer.getInt();
+                long[] ids = new long[count()];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = buffer.getLong();
+                }
+                pages.add(new GitHubRepositoryFetcher.PageState(source, page, etag, lastModified, lastPage, ids));
+            }
+
+            byte[] history = null;
+            if (formatVersion >= 2) {
+                int length = buffer.getInt();
+                if (length >= 0) {
+                    if (length > buffer.remaining()) {
+                        throw new BufferUnderflowException();
+                    }
+                    history = new byte[length];
+                    buffer.get(history);
+                }
+            }
+
+            // Written before epochs were recorded; restored under the epoch of this run
+            String epoch = formatVersion >= 4 ? string() : null;
+
+            if (buffer.hasRemaining()) {
+                throw new IllegalStateException(buffer.remaining() + " trailing bytes in repository snapshot");
+            }
+            return new PersistedSnapshot(epoch, version, syncedAt != NO_TIMESTAMP ? Instant.ofEpochMilli(syncedAt) : null,
+                    repositories, pages, history);
+        }
+
+        private void readDetails(Repository repository) {
+            int openIssues = buffer.getInt();
+            repository.setOpenIssuesCount(openIssues >= 0 ? openIssues : null);
+            repository.setLastCommitSha(string());
+            repository.setLastCommitAt(timestamp(buffer.getLong()));
+            repository.setEnrichedAt(timestamp(buffer.getLong()));
+
+            // Topics and languages repeat across repositories, so their strings are shared
+            int topicCount = buffer.getInt();
+            if (topicCount >= 0) {
+                checkCount(topicCount);
+                String[] topics = new String[topicCount];
+                for (int i = 0; i < topicCount; i++) {
+                    topics[i] = sharedString();
+                }
+                repository.setTopics(List.of(topics));
+            }
+            int languageCount = buffer.getInt();
+            if (languageCount >= 0) {
+                checkCount(languageCount);
+                Map<String, Long> languageBytes = new LinkedHashMap<>();
+                for (int i = 0; i < languageCount; i++) {
+                    languageBytes.put(sharedString(), buffer.getLong());
+                }
+                repository.setLanguageBytes(Collections.unmodifiableMap(languageBytes));
+            }
+        }
+
+        private int count() {
+            return checkCount(buffer.getInt());
+        }
+
+        private int checkCount(int count) {
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IllegalStateException("Invalid element count " + count + " in repository snapshot");
+            }
+            return count;
+        }
+
+        private String string() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private String sharedString() {
+            String value = string();
+            return value != null ? shared.computeIfAbsent(value, v -> v) : null;
+        }
+
+        private static LocalDateTime timestamp(long epochSecond) {
+            return epochSecond != NO_TIMESTAMP ? LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC) : null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.model.Repository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Holds the current {@link RepositorySnapshot}. Readers get the latest snapshot with a single
+ * volatile read and never block; publishing a new snapshot swaps the reference atomically and then
+ * announces the change set as a {@link RepositoryChangeEvent}.
+ */
+@Component
+public class RepositorySnapshotStore {
+
+    private final ApplicationEventPublisher eventPublisher;
+    // Epoch of the data this instance publishes until a restored snapshot or the cluster supplies one
+    private final String bootEpoch = newEpoch();
+
+    private volatile RepositorySnapshot current = RepositorySnapshot.empty();
+
+    public RepositorySnapshotStore(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public RepositorySnapshot current() {
+        return current;
+    }
+
+    /**
+     * A new random epoch, for data whose versions must not be confused with any counted before.
+     */
+    static String newEpoch() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    public RepositorySnapshot publish(Collection<Repository> repositories, RepositoryChangeSet changes) {
+        return publish(null, 0, repositories, changes);
+    }
+
+    /**
+     * Publishes under {@code epoch} and {@code version}, the shared ones when replicas are
+     * clustered, so that every replica serving the same data hands out the same ETags. A
+     * {@code null} epoch keeps the current one. Versions never go back within an epoch: one not
+     * above the current snapshot's is replaced by the next one up.
+     */
+    public synchronized RepositorySnapshot publish(String epoch, long version, Collection<Repository> repositories,
+                                                   RepositoryChangeSet changes) {
+        RepositorySnapshot previous = current;
+        String nextEpoch = epoch != null ? epoch : previous.isLoaded() ? previous.getEpoch() : bootEpoch;
+        long floor = nextEpoch.equals(previous.getEpoch()) ? previous.getVersion() + 1 : 1;
+        RepositorySnapshot next = new RepositorySnapshot(nextEpoch, Math.max(version, floor), repositories);
+        current = next;
+        eventPublisher.publishEvent(new RepositoryChangeEvent(previous, next, changes));
+        return next;
+    }
+
+    /**
+     * Publishes a snapshot read back from disk under its persisted epoch and version, so that ETags
+     * handed out before a restart stay valid. A file written before epochs were recorded has none
+     * ({@code null}) and continues under this instance's own. Only takes effect while no snapshot
+     * has been loaded.
+     */
+    public synchronized boolean restore(String epoch, long version, Collection<Repository> repositories) {
+        RepositorySnapshot previous = current;
+        if (previous.isLoaded()) {
+            return false;
+        }
+        RepositorySnapshot restored = new RepositorySnapshot(epoch != null ? epoch : bootEpoch, version, repositories);
+        current = restored;
+        eventPublisher.publishEvent(new RepositoryChangeEvent(previous, restored, RepositoryChangeSet.empty()));
+        return true;
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.RepositoryStats;
+import com.github.repodashboard.dto.RepositoryStats.LanguageFacet;
+import com.github.repodashboard.model.Repository;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps repository totals and per-language facets up to date by applying each sync's inserts,
+ * updates and deletes to running counters, so reading the stats is O(1). An immutable
+ * {@link RepositoryStats} is republished after every change.
+ */
+@Component
+public class RepositoryStatsEngine {
+
+    /**
+     * Stats paired with the snapshot epoch and version they were computed for.
+     */
+    public record VersionedStats(String epoch, long version, RepositoryStats stats) {}
+
+    private static final class MutableFacet {
+        int repositories;
+        long stars;
+    }
+
+    private int totalRepositories;
+    private int privateRepositories;
+    private int forkedRepositories;
+    private long totalStars;
+    private long totalForks;
+    private final Map<String, MutableFacet> languageFacets = new HashMap<>();
+
+    private volatile VersionedStats current = new VersionedStats("", 0, RepositoryStats.empty());
+
+    public RepositoryStats current() {
+        return current.stats();
+    }
+
+    public VersionedStats currentVersioned() {
+        return current;
+    }
+
+    // Ahead of the other listeners, so the change feed can ship these stats with its delta
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onRepositoryChange(RepositoryChangeEvent event) {
+        RepositorySnapshot previous = event.previous();
+        if (!previous.isLoaded()) {
+            reset();
+            event.current().getRepositories().forEach(repository -> apply(repository, 1));
+        } else {
+            RepositoryChangeSet changes = event.changes();
+            for (Long removedId : changes.removed()) {
+                Repository removed = previous.getRepository(removedId);
+                if (removed != null) {
+                    apply(removed, -1);
+                }
+            }
+            for (Repository updated : changes.updated()) {
+                Repository before = previous.getRepository(updated.getId());
+                if (before != null) {
+                    apply(before, -1);
+                }
+                apply(updated, 1);
+            }
+            changes.added().forEach(repository -> apply(repository, 1));
+        }
+        current = new VersionedStats(event.current().getEpoch(), event.current().getVersion(), freeze());
+    }
+
+    private void apply(Repository repository, int sign) {
+        int stars = valueOf(repository.getStargazersCount());
+        totalRepositories += sign;
+        totalStars += (long) sign * stars;
+        totalForks += (long) sign * valueOf(repository.getForksCount());
+        if (Boolean.TRUE.equals(repository.getIsPrivate())) {
+            privateRepositories += sign;
+        }
+        if (Boolean.TRUE.equals(repository.getIsFork())) {
+            forkedRepositories += sign;
+        }
+
+        if (repository.getLanguage() != null) {
+            MutableFacet facet = languageFacets.computeIfAbsent(repository.getLanguage(), language -> new MutableFacet());
+            facet.repositories += sign;
+            facet.stars += (long) sign * stars;
+            if (facet.repositories <= 0) {
+                languageFacets.remove(repository.getLanguage());
+            }
+        }
+    }
+
+    private RepositoryStats freeze() {
+        Map<String, LanguageFacet> languages = new TreeMap<>();
+        languageFacets.forEach((language, facet) -> languages.put(language, new LanguageFacet(facet.repositories, facet.stars)));
+        return new RepositoryStats(
+                totalRepositories,
+                totalRepositories - privateRepositories,
+                privateRepositories,
+                forkedRepositories,
+                totalStars,
+                totalForks,
+                Collections.unmodifiableMap(languages));
+    }
+
+    private void reset() {
+        totalRepositories = 0;
+        privateRepositories = 0;
+        forkedRepositories = 0;
+        totalStars = 0;
+        totalForks = 0;
+        languageFacets.clear();
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
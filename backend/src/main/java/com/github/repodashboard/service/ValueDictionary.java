@@ -0,0 +1,100 @@
+package com.github.repodashboard.service;
+
+/**
+ * Canonical instances for low-cardinality string values such as repository languages.
+ *
+ * <p>Lookups accept any {@link CharSequence}, including a view over a parser's character buffer, so
+ * a value that has been seen before costs no allocation at all and every row holding it shares one
+ * {@link String}. Memory therefore scales with the number of distinct values instead of the number
+ * of rows.
+ *
+ * <p>The table is an open-addressing hash set that is replaced, never mutated, on insertion: reads
+ * are lock-free and only the (rare) first sighting of a value takes the lock. Once
+ * {@code maxSize} values are known, unseen values are returned as plain copies, so unexpected
+ * high-cardinality input cannot grow the dictionary without bound.
+ */
+public final class ValueDictionary {
+
+    private final int maxSize;
+    private volatile String[] slots = new String[64];
+    private int size;
+
+    public ValueDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public String intern(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = hash(value);
+        String known = find(slots, value, hash);
+        return known != null ? known : insert(value, hash);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized String insert(CharSequence value, int hash) {
+        String[] current = slots;
+        String known = find(current, value, hash);
+        if (known != null) {
+            return known;
+        }
+        String canonical = value.toString();
+        if (size >= maxSize) {
+            return canonical;
+        }
+
+        // Keep the load factor at or below one half so probe sequences stay short
+        String[] next = new String[(size + 1) * 2 > current.length ? current.length * 2 : current.length];
+        for (String existing : current) {
+            if (existing != null) {
+                place(next, existing, existing.hashCode());
+            }
+        }
+        place(next, canonical, hash);
+        size++;
+        slots = next;
+        return canonical;
+    }
+
+    private static String find(String[] table, CharSequence value, int hash) {
+        int mask = table.length - 1;
+        for (int index = spread(hash) & mask; ; index = (index + 1) & mask) {
+            String candidate = table[index];
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.hashCode() == hash && candidate.contentEquals(value)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void place(String[] table, String value, int hash) {
+        int mask = table.length - 1;
+        int index = spread(hash) & mask;
+        while (table[index] != null) {
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+    }
+
+    // Same function as String.hashCode(), so stored strings can use their cached hash
+    private static int hash(CharSequence value) {
+        if (value instanceof String string) {
+            return string.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.repodashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches serialized JSON bodies, plain and gzip-compressed, per response key and data version
+ * (epoch and version, see {@link RepositorySnapshot}).
+ * Because the data only changes when a sync publishes a new snapshot, a body is serialized and
+ * compressed at most once per version and every later request for that version is served from
+ * the cached bytes.
+ */
+@Component
+public class VersionedResponseCache {
+
+    public record CachedResponse(String epoch, long version, byte[] json, byte[] gzip) {}
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+
+    public VersionedResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public CachedResponse get(String key, String epoch, long version, Supplier<?> body) {
+        CachedResponse cached = entries.get(key);
+        if (cached != null && cached.version() == version && cached.epoch().equals(epoch)) {
+            return cached;
+        }
+
+        byte[] json = serialize(body.get());
+        CachedResponse fresh = new CachedResponse(epoch, version, json, gzip(json));
+        // Never let a slow request for an older version overwrite a newer entry; a new epoch always wins
+        entries.merge(key, fresh, (existing, candidate) ->
+                !candidate.epoch().equals(existing.epoch()) || candidate.version() >= existing.version() ? candidate : existing);
+        return fresh;
+    }
+
+    /**
+     * Strong ETag for a response key at a data version. Compressed and identity bodies are
+     * different representations, so they get different tags.
+     */
+    public static String etag(String key, String epoch, long version, boolean gzip) {
+        return "\"" + key + "-" + epoch + "-v" + version + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.repodashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.GitHubRepository;
+import com.github.repodashboard.dto.SyncResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes GitHub webhook deliveries off the request thread.
+ *
+ * <p>Deliveries are put on a bounded queue and drained by a single worker. Repository events whose
+ * payload carries the repository object are applied as single-row deltas. Everything that needs a
+ * refetch (pushes, transfers, payloads we cannot interpret, queue overflow) only requests a
+ * refresh; requests are debounced for {@code webhook.refresh-debounce-ms} and coalesced, so a burst
+ * of pushes results in at most one full refresh per window.
+ *
+ * <p>When replicas are clustered only the leader writes: a replica that is not the leader turns
+ * every delta into a refresh, which it hands over to the leader.
+ *
+ * <p>The worker runs as a {@link SmartLifecycle}, so on shutdown it is stopped, and the delivery
+ * it is processing finished, before the context destroys the database and the event listeners
+ * that delivery writes and publishes to.
+ */
+@Component
+public class WebhookEventProcessor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookEventProcessor.class);
+    private static final long POLL_INTERVAL_MS = 500;
+    private static final Set<String> UPSERT_ACTIONS = Set.of(
+            "created", "edited", "renamed", "publicized", "privatized", "archived", "unarchived");
+
+    private record WebhookEvent(String type, String deliveryId, Map<String, Object> payload) {}
+
+    public record WebhookMetrics(int queueDepth,
+                                 int queueCapacity,
+                                 long received,
+                                 long dropped,
+                                 long deltasApplied,
+                                 long refreshesRequested,
+                                 long refreshesExecuted,
+                                 double coalescingRatio) {}
+
+    private final GitHubService gitHubService;
+    private final ObjectMapper objectMapper;
+    private final RepositoryMetrics metrics;
+    private final BlockingQueue<WebhookEvent> queue;
+    private final int queueCapacity;
+    private final long refreshDebounceMs;
+    private final long shutdownTimeoutMs;
+    private final ScheduledExecutorService refreshExecutor;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong deltasApplied = new AtomicLong();
+    private final AtomicLong refreshesRequested = new AtomicLong();
+    private final AtomicLong refreshesExecuted = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    public WebhookEventProcessor(GitHubService gitHubService,
+                                 ObjectMapper objectMapper,
+                                 RepositoryMetrics metrics,
+                                 @Value("${webhook.queue-capacity:1000}") int queueCapacity,
+                                 @Value("${webhook.refresh-debounce-ms:5000}") long refreshDebounceMs,
+                                 @Value("${webhook.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.gitHubService = gitHubService;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.refreshDebounceMs = refreshDebounceMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.registerGauge("webhook.queue.depth", "Webhook deliveries waiting to be processed", queue, BlockingQueue::size);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drain, "webhook-worker");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Waits up to {@code webhook.shutdown-timeout-ms} for the delivery in progress. Deliveries still
+     * queued are dropped; the next sync picks up their changes.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        // Drops a refresh still debouncing, and stops a running one waiting for its sync, which
+        // GitHubService finishes on its own thread
+        refreshExecutor.shutdownNow();
+        try {
+            worker.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("Webhook worker still processing a delivery after {}ms", shutdownTimeoutMs);
+        }
+        if (!queue.isEmpty()) {
+            log.info("Dropping queued webhook deliveries on shutdown count={}", queue.size());
+            queue.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Enqueues a delivery without processing it. When the queue is full the event is dropped and a
+     * full refresh is requested instead, so no change is lost.
+     */
+    public void submit(String eventType, String deliveryId, Map<String, Object> payload) {
+        received.incrementAndGet();
+        if (queue.offer(new WebhookEvent(eventType, deliveryId, payload))) {
+            metrics.recordWebhook(eventType, "queued");
+        } else {
+            dropped.incrementAndGet();
+            metrics.recordWebhook(eventType, "dropped");
+            log.warn("Webhook queue full, dropping delivery and scheduling a refresh event={} delivery={}", eventType, deliveryId);
+            requestRefresh();
+        }
+    }
+
+    public WebhookMetrics getMetrics() {
+        long requested = refreshesRequested.get();
+        long executed = refreshesExecuted.get();
+        double coalescingRatio = requested == 0 ? 0.0 : 1.0 - (double) executed / requested;
+        return new WebhookMetrics(queue.size(), queueCapacity, received.get(), dropped.get(),
+                deltasApplied.get(), requested, executed, Math.max(0.0, coalescingRatio));
+    }
+
+    private void drain() {
+        while (running) {
+            WebhookEvent event = null;
+            try {
+                event = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                metrics.recordWebhook(event.type(), process(event));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (event != null) {
+                    metrics.recordWebhook(event.type(), "failed");
+                    log.warn("Error processing webhook event={} delivery={}", event.type(), event.deliveryId(), e);
+                }
+                requestRefresh();
+            }
+        }
+    }
+
+    /**
+     * Handles one delivery and returns how it was handled: {@code delta}, {@code refresh} or
+     * {@code ignored}.
+     */
+    private String process(WebhookEvent event) {
+        if ("repository".equals(event.type())) {
+            return processRepositoryEvent(event);
+        } else if ("push".equals(event.type())) {
+            // Push payloads describe the repository with a different (epoch-based) schema, so refetch
+            requestRefresh();
+            return "refresh";
+        }
+        return "ignored";
+    }
+
+    private String processRepositoryEvent(WebhookEvent event) {
+        Object action = event.payload().get("action");
+        Object repositoryPayload = event.payload().get("repository");
+        if (!(repositoryPayload instanceof Map<?, ?>)) {
+            requestRefresh();
+            return "refresh";
+        }
+
+        if ("deleted".equals(action)) {
+            GitHubRepository repository = objectMapper.convertValue(repositoryPayload, GitHubRepository.class);
+            return applyDelta(event, List.of(), List.of(repository.getId()));
+        } else if (action instanceof String && UPSERT_ACTIONS.contains(action)) {
+            GitHubRepository repository = objectMapper.convertValue(repositoryPayload, GitHubRepository.class);
+            return applyDelta(event, List.of(repository), List.of());
+        } else if ("transferred".equals(action)) {
+            requestRefresh();
+            return "refresh";
+        }
+        return "ignored";
+    }
+
+    private String applyDelta(WebhookEvent event, List<GitHubRepository> upserts, List<Long> removals) {
+        if (!gitHubService.isSyncLeader()) {
+            requestRefresh();
+            return "refresh";
+        }
+        SyncResult result = gitHubService.applyRepositoryDelta(upserts, removals);
+        deltasApplied.incrementAndGet();
+        log.debug("Applied webhook delta delivery={} inserted={} updated={} deleted={}",
+                event.deliveryId(), result.inserted(), result.updated(), result.deleted());
+        return "delta";
+    }
+
+    private void requestRefresh() {
+        refreshesRequested.incrementAndGet();
+        if (refreshPending.compareAndSet(false, true)) {
+            try {
+                refreshExecutor.schedule(this::runRefresh, refreshDebounceMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Shutting down, not scheduling a webhook refresh");
+            }
+        }
+    }
+
+    private void runRefresh() {
+        // Clear the flag first so requests arriving during the refresh schedule the next window
+        refreshPending.set(false);
+        refreshesExecuted.incrementAndGet();
+        try {
+            gitHubService.fetchAndCacheRepositories();
+        } catch (Exception e) {
+            log.warn("Webhook-triggered refresh failed", e);
+        }
+    }
+}
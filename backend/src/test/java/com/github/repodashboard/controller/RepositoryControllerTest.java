@@ -0,0 +1,93 @@
+package com.github.repodashboard.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.service.GitHubService;
+import com.github.repodashboard.service.RepositoryChangeFeed;
+import com.github.repodashboard.service.RepositoryHistoryStore;
+import com.github.repodashboard.service.RepositoryMetrics;
+import com.github.repodashboard.service.RepositoryQueryService;
+import com.github.repodashboard.service.RepositorySearchIndex;
+import com.github.repodashboard.service.RepositorySnapshot;
+import com.github.repodashboard.service.VersionedResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RepositoryControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        GitHubService gitHubService = mock(GitHubService.class);
+        when(gitHubService.getSnapshot()).thenReturn(RepositorySnapshot.empty());
+        RepositoryController controller = new RepositoryController(gitHubService,
+                new RepositoryQueryService(gitHubService, new RepositorySearchIndex(), 100),
+                new VersionedResponseCache(new ObjectMapper()), mock(RepositoryMetrics.class),
+                mock(RepositoryChangeFeed.class), mock(RepositoryHistoryStore.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/repos").param("sort", "stars").param("limit", "2").param("cursor", "not base64!"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed cursor"));
+    }
+
+    @Test
+    void filteredResponsesGetTagsOfTheirOwn() throws Exception {
+        String unfiltered = etag(get("/api/repos"));
+        String java = etag(get("/api/repos").param("language", "Java"));
+        String go = etag(get("/api/repos").param("language", "Go"));
+        String javaStats = etag(get("/api/repos/stats").param("language", "Java"));
+
+        assertThat(List.of(unfiltered, java, go, javaStats)).doesNotHaveDuplicates();
+        assertThat(etag(get("/api/repos").param("language", "Java"))).isEqualTo(java);
+        mockMvc.perform(get("/api/repos").param("language", "Java").header(HttpHeaders.IF_NONE_MATCH, java))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/repos").param("language", "Go").header(HttpHeaders.IF_NONE_MATCH, java))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void gzipOnlyWhenAcceptedWithNonZeroQuality() throws Exception {
+        mockMvc.perform(get("/api/repos").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get("/api/repos").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void parsesAcceptEncodingQualities() {
+        assertThat(RepositoryController.acceptsGzip("gzip")).isTrue();
+        assertThat(RepositoryController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(RepositoryController.acceptsGzip("*")).isTrue();
+        assertThat(RepositoryController.acceptsGzip(null)).isFalse();
+        assertThat(RepositoryController.acceptsGzip("identity")).isFalse();
+        assertThat(RepositoryController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(RepositoryController.acceptsGzip("gzip; q=0.000")).isFalse();
+        assertThat(RepositoryController.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(RepositoryController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(RepositoryController.acceptsGzip("gzip;q=bad")).isFalse();
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.config.GitHubSourceProperties.Source;
+import com.github.repodashboard.config.GitHubSourceProperties.SourceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubRepositoryFetcherTest {
+
+    @Test
+    void defaultsNamesAndTokens() {
+        List<Source> resolved = GitHubRepositoryFetcher.resolveSources(List.of(
+                new Source(null, SourceType.ORG, "acme", null),
+                new Source("mine", SourceType.AUTHENTICATED, null, "own-token")), "default-token");
+
+        assertThat(resolved).extracting(Source::getName).containsExactly("acme", "mine");
+        assertThat(resolved).extracting(Source::getToken).containsExactly("default-token", "own-token");
+        assertThat(resolved.get(0).getRepositoriesPath()).isEqualTo("/orgs/acme/repos?type=all");
+    }
+
+    @Test
+    void rejectsUserOrOrgSourceWithoutOwner() {
+        assertThatThrownBy(() -> GitHubRepositoryFetcher.resolveSources(
+                List.of(new Source("team", SourceType.ORG, " ", null)), "token"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("sources[0]")
+                .hasMessageContaining("owner");
+    }
+
+    @Test
+    void rejectsDuplicateSourceNames() {
+        assertThatThrownBy(() -> GitHubRepositoryFetcher.resolveSources(List.of(
+                new Source(null, SourceType.USER, "octocat", null),
+                new Source("octocat", SourceType.ORG, "acme", null)), "token"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("sources[1]")
+                .hasMessageContaining("'octocat'");
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.repodashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitHubTimestampsTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 1, 12, 34, 56);
+
+    @Test
+    void parsesUtcDesignatorAndMissingOffset() {
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56Z")).isEqualTo(NOON);
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56z")).isEqualTo(NOON);
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56")).isEqualTo(NOON);
+        assertThat(GitHubTimestamps.parseUtc(new StringBuilder("2024-03-01T12:34:56Z"))).isEqualTo(NOON);
+    }
+
+    @Test
+    void appliesExplicitOffsets() {
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T14:34:56+02:00")).isEqualTo(NOON);
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T07:04:56-05:30")).isEqualTo(NOON);
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56+00:00")).isEqualTo(NOON);
+        // Crossing midnight and a month boundary
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T01:00:00+02:00")).isEqualTo(LocalDateTime.of(2024, 2, 29, 23, 0));
+    }
+
+    @Test
+    void keepsFractionUpToNanoseconds() {
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56.5Z")).isEqualTo(NOON.withNano(500_000_000));
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56.123456789Z")).isEqualTo(NOON.withNano(123_456_789));
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T12:34:56.1234567891Z")).isEqualTo(NOON.withNano(123_456_789));
+        assertThat(GitHubTimestamps.parseUtc("2024-03-01T14:34:56.25+02:00")).isEqualTo(NOON.withNano(250_000_000));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        for (String text : List.of("", "2024-03-01", "2024-03-01 12:34:56Z", "2024-3-01T12:34:56Z",
+                "2024-03-01T12:34:5xZ", "2024-03-01T12:34:56.Z", "2024-03-01T12:34:56ZZ", "2024-03-01T12:34:56+0200",
+                "2024-03-01T12:34:56+19:00", "2024-03-01T12:34:56+02:60", "2024-13-01T12:34:56Z",
+                "2024-02-30T12:34:56Z", "2024-03-01T24:00:00Z")) {
+            assertThatThrownBy(() -> GitHubTimestamps.parseUtc(text))
+                    .as(text)
+                    .isInstanceOf(DateTimeException.class);
+        }
+    }
+}
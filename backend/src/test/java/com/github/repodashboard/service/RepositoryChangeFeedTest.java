@@ -0,0 +1,158 @@
+package com.github.repodashboard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.model.Repository;
+import com.github.repodashboard.service.RepositoryChangeFeed.FeedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RepositoryChangeFeedTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private RepositoryStatsEngine statsEngine;
+    private RepositoryChangeFeed feed;
+    private RepositorySnapshot current;
+
+    @BeforeEach
+    void setUp() {
+        statsEngine = new RepositoryStatsEngine();
+        // Three events of history, so older versions are evicted quickly
+        feed = new RepositoryChangeFeed(objectMapper, statsEngine, new RepositoryMetrics(new SimpleMeterRegistry()),
+                3, 60_000, 60_000, 100, 64);
+        current = RepositorySnapshot.empty();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void clientWithoutVersionGetsReady() {
+        publish("e", 1, List.of(repository(1)), null);
+
+        assertThat(feed.catchUp(null, null)).extracting(FeedEvent::name, FeedEvent::epoch, FeedEvent::version)
+                .containsExactly(tuple("ready", "e", 1L));
+    }
+
+    @Test
+    void resumesFromLastEventId() {
+        publishVersions("e", 4);
+
+        assertThat(feed.catchUp("e-2", null)).extracting(FeedEvent::name, FeedEvent::version)
+                .containsExactly(tuple("delta", 3L), tuple("delta", 4L));
+        assertThat(feed.catchUp("e-4", null)).extracting(FeedEvent::name).containsExactly("ready");
+        // The id wins over since
+        assertThat(feed.catchUp("e-3", "e-1")).extracting(FeedEvent::version).containsExactly(4L);
+    }
+
+    @Test
+    void resetsWhenVersionWasEvicted() {
+        publishVersions("e", 4);
+
+        // Versions 2 to 4 are still held, so a client at 1 is replayed all of them
+        assertThat(feed.catchUp("e-1", null)).extracting(FeedEvent::version).containsExactly(2L, 3L, 4L);
+
+        publishVersions("e", 5);
+
+        assertThat(feed.catchUp("e-1", null)).extracting(FeedEvent::name).containsExactly("reset");
+        assertThat(feed.catchUp("e-2", null)).extracting(FeedEvent::version).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void resetsOnForeignOrUnknownIds() {
+        publishVersions("e", 3);
+
+        assertThat(feed.catchUp("other-2", null)).extracting(FeedEvent::name).containsExactly("reset");
+        assertThat(feed.catchUp("e-9", null)).extracting(FeedEvent::name).containsExactly("reset");
+        assertThat(feed.catchUp("e-x", null)).extracting(FeedEvent::name).containsExactly("reset");
+        // Ids issued before they carried the epoch
+        assertThat(feed.catchUp("2", null)).extracting(FeedEvent::name).containsExactly("reset");
+    }
+
+    @Test
+    void resetsAcrossEpochChange() {
+        publishVersions("e", 3);
+
+        publish("f", 1, List.of(repository(1)), RepositoryChangeSet.empty());
+
+        assertThat(feed.catchUp("e-3", null)).extracting(FeedEvent::name, FeedEvent::epoch)
+                .containsExactly(tuple("reset", "f"));
+        assertThat(feed.catchUp("e-1", null)).extracting(FeedEvent::name).containsExactly("reset");
+        assertThat(feed.catchUp("f-1", null)).extracting(FeedEvent::name).containsExactly("ready");
+
+        publish("f", 2, List.of(repository(1), repository(2)),
+                new RepositoryChangeSet(List.of(repository(2)), List.of(), List.of()));
+
+        // The old epoch's history is gone, so version 1 of the new one resumes normally
+        assertThat(feed.catchUp("f-1", null)).extracting(FeedEvent::name, FeedEvent::version)
+                .containsExactly(tuple("delta", 2L));
+    }
+
+    @Test
+    void bareSinceVersionBelongsToCurrentEpoch() {
+        publishVersions("e", 3);
+
+        assertThat(feed.catchUp(null, "2")).extracting(FeedEvent::version).containsExactly(3L);
+        assertThat(feed.catchUp(null, "3")).extracting(FeedEvent::name).containsExactly("ready");
+        assertThat(feed.catchUp(null, "e-2")).extracting(FeedEvent::version).containsExactly(3L);
+        assertThat(feed.catchUp(null, "other-2")).extracting(FeedEvent::name).containsExactly("reset");
+    }
+
+    @Test
+    void deltaCarriesStatsOfItsVersion() throws Exception {
+        publishVersions("e", 3);
+
+        FeedEvent delta = feed.catchUp("e-2", null).get(0);
+        JsonNode body = objectMapper.readTree(delta.json());
+
+        assertThat(body.get("version").asLong()).isEqualTo(3);
+        assertThat(body.get("previousVersion").asLong()).isEqualTo(2);
+        assertThat(body.get("added")).hasSize(1);
+        assertThat(body.at("/stats/totalRepositories").asInt()).isEqualTo(3);
+        assertThat(body.at("/stats/totalStars").asLong()).isEqualTo(6);
+    }
+
+    /**
+     * Publishes versions 1 to {@code last} of {@code epoch}, each adding one repository.
+     */
+    private void publishVersions(String epoch, long last) {
+        long first = current.getEpoch().equals(epoch) ? current.getVersion() + 1 : 1;
+        for (long version = first; version <= last; version++) {
+            List<Repository> repositories = new ArrayList<>(current.getRepositories());
+            Repository added = repository(version);
+            repositories.add(added);
+            publish(epoch, version, repositories, new RepositoryChangeSet(List.of(added), List.of(), List.of()));
+        }
+    }
+
+    private void publish(String epoch, long version, List<Repository> repositories, RepositoryChangeSet changes) {
+        RepositorySnapshot next = new RepositorySnapshot(epoch, version, repositories);
+        RepositoryChangeEvent event = new RepositoryChangeEvent(current, next,
+                changes != null ? changes : RepositoryChangeSet.empty());
+        // In the order the listeners run in the application
+        statsEngine.onRepositoryChange(event);
+        feed.onRepositoryChange(event);
+        current = next;
+    }
+
+    private static Repository repository(long id) {
+        Repository repository = new Repository(id, "repo-" + id, "owner/repo-" + id, null,
+                "https://github.com/owner/repo-" + id, (int) id, 0, "Java", CREATED, CREATED, false, false);
+        repository.setSource("user");
+        return repository;
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.RepositoryChangeSet;
+import com.github.repodashboard.dto.RepositoryPage;
+import com.github.repodashboard.dto.RepositoryQuery;
+import com.github.repodashboard.model.Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RepositoryQueryServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private RepositorySnapshot snapshot;
+    private RepositoryQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        // Three star ties, two more, and only repositories 2 and 4 enriched with a last commit
+        List<Repository> repositories = List.of(
+                repository(1, "alpha", 10, "a cli tool", null),
+                repository(2, "Bravo", 5, "a library", CREATED.plusDays(2)),
+                repository(3, "charlie", 10, "cli helpers", null),
+                repository(4, "delta", 10, "a service", CREATED.plusDays(4)),
+                repository(5, "echo", 0, "another cli", null),
+                repository(6, "foxtrot", 5, "a website", null));
+        snapshot = new RepositorySnapshot("test", 1, repositories);
+        RepositorySearchIndex searchIndex = new RepositorySearchIndex();
+        searchIndex.onRepositoryChange(new RepositoryChangeEvent(RepositorySnapshot.empty(), snapshot,
+                new RepositoryChangeSet(repositories, List.of(), List.of())));
+        queryService = new RepositoryQueryService(null, searchIndex, 100);
+    }
+
+    @Test
+    void keysetCursorsPageThroughTiesInIdOrder() {
+        assertThat(pageIds(query(null, "stars", "desc", 2, null)))
+                .containsExactly(List.of(1L, 3L), List.of(4L, 2L), List.of(6L, 5L));
+        assertThat(pageIds(query(null, "stars", "asc", 2, null)))
+                .containsExactly(List.of(5L, 2L), List.of(6L, 1L), List.of(3L, 4L));
+    }
+
+    @Test
+    void keysetCursorsPageByNameCaseInsensitively() {
+        assertThat(pageIds(query(null, null, null, 4, null)))
+                .containsExactly(List.of(1L, 2L, 3L, 4L), List.of(5L, 6L));
+    }
+
+    @Test
+    void keysetCursorsPageOverMissingSortValues() {
+        // Repositories without a last commit sort as 0, after every enriched one when descending
+        assertThat(pageIds(query(null, "lastCommitAt", "desc", 2, null)))
+                .containsExactly(List.of(4L, 2L), List.of(1L, 3L), List.of(5L, 6L));
+    }
+
+    @Test
+    void keysetCursorSurvivesRemovalOfItsRow() {
+        RepositoryPage first = queryService.query(snapshot, query(null, "stars", "desc", 2, null));
+        List<Repository> remaining = new ArrayList<>(snapshot.getRepositories());
+        remaining.removeIf(repository -> repository.getId() == 3L);
+        RepositorySnapshot next = new RepositorySnapshot("test", 2, remaining);
+
+        RepositoryPage second = queryService.query(next, query(null, "stars", "desc", 2, first.nextCursor()));
+
+        assertThat(second.items()).extracting(Repository::getId).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void offsetCursorsPageThroughRelevanceOrder() {
+        List<Long> unpaged = queryService.query(snapshot, query("cli", null, null, null, null)).items().stream()
+                .map(Repository::getId)
+                .toList();
+
+        List<List<Long>> pages = pageIds(query("cli", null, null, 1, null));
+
+        assertThat(unpaged).containsExactlyInAnyOrder(1L, 3L, 5L);
+        assertThat(pages).hasSize(3);
+        assertThat(pages.stream().flatMap(List::stream).toList()).isEqualTo(unpaged);
+    }
+
+    @Test
+    void unsortedUnpagedQueryReturnsEverythingWithoutCursor() {
+        RepositoryPage page = queryService.query(snapshot, query(null, null, null, null, null));
+
+        assertThat(page.items()).extracting(Repository::getId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(page.nextCursor()).isNull();
+        assertThat(page.total()).isEqualTo(6);
+    }
+
+    @Test
+    void offsetPastTheEndReturnsEmptyPage() {
+        RepositoryPage page = queryService.query(snapshot, query("cli", null, null, 2, cursor("offset", "", "50", "")));
+
+        assertThat(page.items()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSortOrder() {
+        String starsCursor = queryService.query(snapshot, query(null, "stars", "desc", 2, null)).nextCursor();
+        String offsetCursor = queryService.query(snapshot, query("cli", null, null, 1, null)).nextCursor();
+
+        assertThatThrownBy(() -> queryService.query(snapshot, query(null, "stars", "asc", 2, starsCursor)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor does not match the requested sort order");
+        assertThatThrownBy(() -> queryService.query(snapshot, query(null, "stars", "desc", 2, offsetCursor)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor does not match the requested sort order");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : List.of("not base64!", encode("stars\u0000desc"), cursor("stars", "desc", "many", "1"),
+                cursor("stars", "desc", "10", "x"))) {
+            assertThatThrownBy(() -> queryService.query(snapshot, query(null, "stars", "desc", 2, cursor)))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Malformed cursor");
+        }
+        assertThatThrownBy(() -> queryService.query(snapshot, query("cli", null, null, 1, cursor("offset", "", "-1", ""))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed cursor");
+    }
+
+    private List<List<Long>> pageIds(RepositoryQuery first) {
+        List<List<Long>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            RepositoryPage page = queryService.query(snapshot, query(first.search(), first.sort(), first.order(),
+                    first.limit(), cursor));
+            pages.add(page.items().stream().map(Repository::getId).toList());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private static RepositoryQuery query(String search, String sort, String order, Integer limit, String cursor) {
+        return new RepositoryQuery(search, null, null, null, null, null, null, null, null, sort, order, limit, cursor);
+    }
+
+    private static String cursor(String sort, String order, String value, String id) {
+        return encode(sort + '\u0000' + order + '\u0000' + value + '\u0000' + id);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Repository repository(long id, String name, int stars, String description, LocalDateTime lastCommitAt) {
+        Repository repository = new Repository(id, name, "owner/" + name, description, "https://github.com/owner/" + name,
+                stars, 0, "Java", CREATED, CREATED.plusDays(id), false, false);
+        repository.setSource("user");
+        if (lastCommitAt != null) {
+            repository.setLastCommitAt(lastCommitAt);
+            repository.setEnrichedAt(lastCommitAt);
+        }
+        return repository;
+    }
+}
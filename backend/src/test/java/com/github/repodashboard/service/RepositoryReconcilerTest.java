@@ -0,0 +1,204 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.dto.SyncResult;
+import com.github.repodashboard.model.Repository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A batch size of 2 makes every reconcile below span several chunks, and changes are kept for 3 versions
+@DataJpaTest
+@Import(RepositoryReconciler.class)
+@TestPropertySource(properties = {"github.sync.batch-size=2", "cluster.change-retention-versions=3"})
+class RepositoryReconcilerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private RepositoryReconciler reconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertsUpdatesAndDeletesRows() {
+        reconciler.reconcile(List.of(repository(1, "user", 1), repository(2, "user", 1), repository(3, "user", 1)),
+                Set.of("user"));
+
+        SyncResult result = reconciler.reconcile(
+                List.of(repository(1, "user", 1), repository(2, "user", 2), repository(4, "user", 1)), Set.of("user"));
+
+        assertThat(result.changes().added()).extracting(Repository::getId).containsExactly(4L);
+        assertThat(result.changes().updated()).extracting(Repository::getId).containsExactly(2L);
+        assertThat(result.changes().removed()).containsExactly(3L);
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(reconciler.loadAll()).extracting(Repository::getId).containsExactly(1L, 2L, 4L);
+        assertThat(reconciler.loadAll().get(1).getUpdatedAt()).isEqualTo(CREATED.plusDays(2));
+    }
+
+    @Test
+    void unchangedListWritesNothing() {
+        List<Repository> repositories = List.of(repository(1, "user", 1), repository(2, "user", 1));
+        reconciler.reconcile(repositories, Set.of("user"));
+
+        SyncResult result = reconciler.reconcile(repositories, Set.of("user"));
+
+        assertThat(result.hasChanges()).isFalse();
+        assertThat(result.unchanged()).isEqualTo(2);
+    }
+
+    @Test
+    void moveToAnotherSourceIsAnUpdate() {
+        reconciler.reconcile(List.of(repository(1, "user", 1)), Set.of("user", "org"));
+
+        SyncResult result = reconciler.reconcile(List.of(repository(1, "org", 1)), Set.of("user", "org"));
+
+        assertThat(result.changes().updated()).extracting(Repository::getSource).containsExactly("org");
+    }
+
+    @Test
+    void deletesOnlyRowsOfSyncedSources() {
+        reconciler.reconcile(List.of(repository(1, "user", 1), repository(2, "org", 1), repository(3, "org", 1)),
+                Set.of("user", "org"));
+
+        // The org source failed this time, so only the user source's rows are eligible for deletion
+        SyncResult result = reconciler.reconcile(List.of(), Set.of("user"));
+
+        assertThat(result.changes().removed()).containsExactly(1L);
+        assertThat(reconciler.loadAll()).extracting(Repository::getId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void replacesTopicsAndLanguagesWithTheirRow() {
+        Repository enriched = repository(1, "user", 1);
+        enrich(enriched, List.of("cli", "java"), Map.of("Java", 900L, "Shell", 100L));
+        reconciler.reconcile(List.of(enriched), Set.of("user"));
+
+        Repository updated = repository(1, "user", 2);
+        enrich(updated, List.of("rust"), Map.of("Rust", 500L));
+        reconciler.reconcile(List.of(updated), Set.of("user"));
+
+        Repository loaded = reconciler.loadAll().get(0);
+        assertThat(loaded.getTopics()).containsExactly("rust");
+        assertThat(loaded.getLanguageBytes()).containsExactly(Map.entry("Rust", 500L));
+        assertThat(count("repository_topics")).isEqualTo(1);
+        assertThat(count("repository_languages")).isEqualTo(1);
+    }
+
+    @Test
+    void deletingRowRemovesItsTopicsAndLanguages() {
+        Repository enriched = repository(1, "user", 1);
+        enrich(enriched, List.of("cli"), Map.of("Java", 900L));
+        reconciler.reconcile(List.of(enriched, repository(2, "user", 1)), Set.of("user"));
+
+        reconciler.reconcile(List.of(repository(2, "user", 1)), Set.of("user"));
+
+        assertThat(count("repository_topics")).isZero();
+        assertThat(count("repository_languages")).isZero();
+    }
+
+    @Test
+    void applyDetailsRewritesChildTablesOfUnchangedRow() {
+        reconciler.reconcile(List.of(repository(1, "user", 1)), Set.of("user"));
+        Repository enriched = repository(1, "user", 1);
+        enrich(enriched, List.of("cli"), Map.of("Go", 10L));
+
+        reconciler.applyDetails(List.of(enriched));
+
+        Repository loaded = reconciler.loadAll().get(0);
+        assertThat(loaded.getEnrichedAt()).isNotNull();
+        assertThat(loaded.getTopics()).containsExactly("cli");
+        assertThat(loaded.getLanguageBytes()).containsExactly(Map.entry("Go", 10L));
+    }
+
+    @Test
+    void deltaAppliesChangesThatKeepUpdatedAt() {
+        reconciler.reconcile(List.of(repository(1, "user", 1), repository(2, "user", 1)), Set.of("user"));
+        Repository starred = repository(1, "user", 1);
+        starred.setStargazersCount(42);
+        Repository madePrivate = repository(2, "user", 1);
+        madePrivate.setIsPrivate(true);
+
+        SyncResult result = reconciler.applyDelta(List.of(starred, madePrivate, repository(3, "user", 1)), List.of());
+
+        assertThat(result.changes().updated()).extracting(Repository::getId).containsExactly(1L, 2L);
+        assertThat(result.changes().added()).extracting(Repository::getId).containsExactly(3L);
+        assertThat(reconciler.loadAll()).extracting(Repository::getStargazersCount).containsExactly(42, 1, 1);
+        assertThat(reconciler.loadAll().get(1).getIsPrivate()).isTrue();
+        assertThat(reconciler.applyDelta(List.of(starred), List.of()).hasChanges()).isFalse();
+    }
+
+    @Test
+    void loadsRowsChangedSinceVersion() {
+        Repository enriched = repository(1, "user", 1);
+        enrich(enriched, List.of("cli"), Map.of("Java", 900L));
+        reconciler.reconcile(List.of(enriched, repository(2, "user", 1), repository(3, "user", 1)), Set.of("user"));
+        reconciler.recordChanges(1, List.of(1L, 2L, 3L), List.of());
+        reconciler.reconcile(List.of(enriched, repository(2, "user", 2), repository(4, "user", 1)), Set.of("user"));
+        reconciler.recordChanges(2, List.of(2L, 4L), List.of(3L));
+
+        RepositoryReconciler.StoredChanges changes = reconciler.loadChanges(1, 2).orElseThrow();
+        assertThat(changes.written()).extracting(Repository::getId).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(changes.written()).extracting(Repository::getUpdatedAt)
+                .containsExactlyInAnyOrder(CREATED.plusDays(2), CREATED.plusDays(1));
+        assertThat(changes.removed()).containsExactly(3L);
+
+        RepositoryReconciler.StoredChanges all = reconciler.loadChanges(0, 2).orElseThrow();
+        assertThat(all.written()).extracting(Repository::getId).containsExactlyInAnyOrder(1L, 2L, 4L);
+        // Written at version 1 and deleted at 2: only the deletion matters
+        assertThat(all.removed()).containsExactly(3L);
+        Repository loaded = all.written().stream().filter(repository -> repository.getId() == 1L).findFirst().orElseThrow();
+        assertThat(loaded.getTopics()).containsExactly("cli");
+        assertThat(loaded.getLanguageBytes()).containsExactly(Map.entry("Java", 900L));
+    }
+
+    @Test
+    void changesOutsideTheRecordedRangeAreNotAvailable() {
+        reconciler.reconcile(List.of(repository(1, "user", 1)), Set.of("user"));
+        reconciler.recordChanges(1, List.of(1L), List.of());
+        reconciler.recordChanges(3, List.of(1L), List.of());
+
+        // Version 2 left no record, e.g. because it predates the change records
+        assertThat(reconciler.loadChanges(1, 3)).isEmpty();
+        assertThat(reconciler.loadChanges(2, 3)).isPresent();
+
+        reconciler.recordChanges(4, List.of(1L), List.of());
+        reconciler.recordChanges(5, List.of(1L), List.of());
+        reconciler.recordChanges(6, List.of(1L), List.of());
+
+        // Versions up to 3 have been pruned
+        assertThat(reconciler.loadChanges(2, 6)).isEmpty();
+        assertThat(reconciler.loadChanges(3, 6)).isPresent();
+        assertThat(count("repository_changes")).isEqualTo(3);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static Repository repository(long id, String source, int updatedDay) {
+        Repository repository = new Repository(id, "repo-" + id, "owner/repo-" + id, null,
+                "https://github.com/owner/repo-" + id, 1, 0, "Java", CREATED, CREATED.plusDays(updatedDay), false, false);
+        repository.setSource(source);
+        return repository;
+    }
+
+    private static void enrich(Repository repository, List<String> topics, Map<String, Long> languageBytes) {
+        repository.setTopics(topics);
+        repository.setLanguageBytes(languageBytes);
+        repository.setOpenIssuesCount(3);
+        repository.setLastCommitSha("abc123");
+        repository.setLastCommitAt(CREATED);
+        repository.setEnrichedAt(CREATED.plusDays(3));
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.repodashboard.service;
+
+import com.github.repodashboard.model.Repository;
+import com.github.repodashboard.service.RepositorySnapshotFile.PersistedSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositorySnapshotFileTest {
+
+    private static final int HEADER_SIZE = 24;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        RepositorySnapshotFile file = file();
+        PersistedSnapshot written = snapshot();
+
+        file.write(written);
+        Optional<PersistedSnapshot> read = file.read();
+
+        assertThat(read).isPresent();
+        PersistedSnapshot snapshot = read.get();
+        assertThat(snapshot.epoch()).isEqualTo("k3x9");
+        assertThat(snapshot.version()).isEqualTo(42);
+        assertThat(snapshot.syncedAt()).isEqualTo(written.syncedAt());
+        assertThat(snapshot.repositories()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(written.repositories());
+        assertThat(snapshot.pages()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(written.pages());
+        assertThat(snapshot.history()).containsExactly(written.history());
+    }
+
+    @Test
+    void overwritesThePreviousFile() throws IOException {
+        RepositorySnapshotFile file = file();
+        file.write(snapshot());
+        PersistedSnapshot empty = new PersistedSnapshot("k3x9", 43, null, List.of(), List.of(), null);
+
+        file.write(empty);
+
+        PersistedSnapshot read = file.read().orElseThrow();
+        assertThat(read.version()).isEqualTo(43);
+        assertThat(read.syncedAt()).isNull();
+        assertThat(read.repositories()).isEmpty();
+        assertThat(read.history()).isNull();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactly(path());
+        }
+    }
+
+    @Test
+    void ignoresBadChecksum() throws IOException {
+        file().write(snapshot());
+        byte[] bytes = Files.readAllBytes(path());
+        bytes[HEADER_SIZE + 3] ^= 0x40;
+        Files.write(path(), bytes);
+
+        assertThat(file().read()).isEmpty();
+    }
+
+    @Test
+    void ignoresTruncatedFile() throws IOException {
+        file().write(snapshot());
+        byte[] bytes = Files.readAllBytes(path());
+
+        Files.write(path(), Arrays.copyOf(bytes, bytes.length - 10));
+        assertThat(file().read()).isEmpty();
+
+        Files.write(path(), Arrays.copyOf(bytes, HEADER_SIZE - 1));
+        assertThat(file().read()).isEmpty();
+    }
+
+    @Test
+    void ignoresTruncatedPayloadWithConsistentHeader() throws IOException {
+        file().write(snapshot());
+        byte[] bytes = Files.readAllBytes(path());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        // Header rewritten to match, so only decoding can notice the missing data
+        CRC32 crc = new CRC32();
+        crc.update(truncated, HEADER_SIZE, truncated.length - HEADER_SIZE);
+        ByteBuffer.wrap(truncated).putLong(8, truncated.length - HEADER_SIZE).putLong(16, crc.getValue());
+        Files.write(path(), truncated);
+
+        assertThat(file().read()).isEmpty();
+    }
+
+    @Test
+    void ignoresUnknownFormatVersionAndMagic() throws IOException {
+        file().write(snapshot());
+        byte[] bytes = Files.readAllBytes(path());
+
+        byte[] newer = bytes.clone();
+        ByteBuffer.wrap(newer).putInt(4, 99);
+        Files.write(path(), newer);
+        assertThat(file().read()).isEmpty();
+
+        byte[] foreign = bytes.clone();
+        ByteBuffer.wrap(foreign).putInt(0, 0x12345678);
+        Files.write(path(), foreign);
+        assertThat(file().read()).isEmpty();
+    }
+
+    @Test
+    void missingOrDisabledFileReadsNothing() throws IOException {
+        assertThat(file().read()).isEmpty();
+
+        file().write(snapshot());
+        assertThat(new RepositorySnapshotFile(path().toString(), false).read()).isEmpty();
+    }
+
+    private RepositorySnapshotFile file() {
+        return new RepositorySnapshotFile(path().toString(), true);
+    }
+
+    private Path path() {
+        return directory.resolve("snapshot.bin");
+    }
+
+    private static PersistedSnapshot snapshot() {
+        Repository plain = new Repository(1L, "alpha", "owner/alpha", null, "https://github.com/owner/alpha",
+                3, 1, "Java", CREATED, CREATED.plusDays(1), false, false);
+        plain.setSource("user");
+        Repository enriched = new Repository(2L, "beta", "acme/beta", "Ünïcode description", "https://github.com/acme/beta",
+                120, 7, "Go", CREATED, CREATED.plusDays(2), true, true);
+        enriched.setSource("acme");
+        enriched.setTopics(List.of("cli", "go"));
+        Map<String, Long> languageBytes = new LinkedHashMap<>();
+        languageBytes.put("Go", 9000L);
+        languageBytes.put("Shell", 120L);
+        enriched.setLanguageBytes(languageBytes);
+        enriched.setOpenIssuesCount(4);
+        enriched.setLastCommitSha("abc123");
+        enriched.setLastCommitAt(CREATED.plusDays(2));
+        enriched.setEnrichedAt(CREATED.plusDays(3));
+
+        List<GitHubRepositoryFetcher.PageState> pages = List.of(
+                new GitHubRepositoryFetcher.PageState("user", 1, "W/\"etag-1\"", null, 1, new long[] {1}),
+                new GitHubRepositoryFetcher.PageState("acme", 1, null, "Mon, 01 Jan 2024 00:00:00 GMT", 2, new long[] {2, 5}));
+        return new PersistedSnapshot("k3x9", 42, Instant.ofEpochMilli(1_700_000_000_123L),
+                List.of(plain, enriched), pages, new byte[] {1, 2, 3, 4, 5});
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.repodashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValueDictionaryTest {
+
+    @Test
+    void returnsOneInstancePerValueWhateverTheInput() {
+        ValueDictionary dictionary = new ValueDictionary(16);
+
+        String first = dictionary.intern(new String("Java"));
+
+        assertThat(dictionary.intern(new String("Java"))).isSameAs(first);
+        assertThat(dictionary.intern(new StringBuilder("Java"))).isSameAs(first);
+        assertThat(dictionary.intern(CharBuffer.wrap("[Java]".toCharArray(), 1, 4))).isSameAs(first);
+        assertThat(dictionary.intern(null)).isNull();
+        assertThat(dictionary.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEarlierInstancesAcrossTableGrowth() {
+        ValueDictionary dictionary = new ValueDictionary(1000);
+        List<String> canonical = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            canonical.add(dictionary.intern(new StringBuilder("value-").append(i)));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(dictionary.intern("value-" + i)).isSameAs(canonical.get(i));
+        }
+        assertThat(dictionary.size()).isEqualTo(500);
+    }
+
+    @Test
+    void stopsGrowingAtTheCap() {
+        ValueDictionary dictionary = new ValueDictionary(2);
+        String java = dictionary.intern("Java");
+        dictionary.intern("Go");
+
+        String first = dictionary.intern(new StringBuilder("Rust"));
+        String second = dictionary.intern(new StringBuilder("Rust"));
+
+        assertThat(first).isEqualTo("Rust").isEqualTo(second).isNotSameAs(second);
+        assertThat(dictionary.intern(new String("Java"))).isSameAs(java);
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentFirstSightingsAgreeOnOneInstance() throws Exception {
+        ValueDictionary dictionary = new ValueDictionary(1000);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<String> seen = new ArrayList<>();
+                    for (int i = 0; i < 200; i++) {
+                        seen.add(dictionary.intern(new StringBuilder("language-").append(i)));
+                    }
+                    return seen;
+                }));
+            }
+            start.countDown();
+
+            List<String> expected = results.get(0).get();
+            for (Future<List<String>> result : results) {
+                List<String> seen = result.get();
+                for (int i = 0; i < seen.size(); i++) {
+                    assertThat(seen.get(i)).isSameAs(expected.get(i));
+                }
+            }
+            assertThat(new HashSet<>(expected)).hasSize(200);
+            assertThat(dictionary.size()).isEqualTo(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,5 +1,5 @@
-import { useState, useEffect } from 'react';
-import { Repository, RepositoryStats } from '../types';
+import { useState, useEffect, useRef } from 'react';
+import { Repository, RepositoryDelta, RepositoryStats } from '../types';
 
 const API_BASE_URL = process.env.REACT_APP_API_URL 
   ? `${process.env.REACT_APP_API_URL}/api`
@@ -13,10 +13,14 @@ export const useRepositories = () => {
   const [languages, setLanguages] = useState<string[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const filters = useRef<{ search?: string; language?: string }>({});
+  const languagesRef = useRef<string[]>([]);
+  languagesRef.current = languages;
 
-  const fetchRepositories = async (search?: string, language?: string) => {
+  const fetchRepositories = async (search?: string, language?: string, background = false) => {
+    filters.current = { search, language };
     try {
-      setLoading(true);
+      if (!background) setLoading(true);
       setError(null);
       
       const params = new URLSearchParams();
@@ -33,7 +37,7 @@ export const useRepositories = () => {
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Failed to fetch repositories');
     } finally {
-      setLoading(false);
+      if (!background) setLoading(false);
     }
   };
 
@@ -87,10 +91,59 @@ export const useRepositories = () => {
     }
   };
 
+  const applyDelta = (delta: RepositoryDelta) => {
+    setStats(delta.stats);
+
+    const { search, language } = filters.current;
+    if (search || language) {
+      // Whether a changed repository matches the filters is decided by the server
+      fetchRepositories(search, language, true);
+    } else {
+      // Updated repositories keep their place in the list; added ones (and updates of
+      // repositories the list does not hold yet) go at the end
+      const removed = new Set<number>(delta.removed);
+      const updated = new Map<number, Repository>(delta.updated.map(repo => [repo.id, repo]));
+      setRepositories(current => {
+        const present = new Set<number>(current.map(repo => repo.id));
+        return [
+          ...current
+            .filter(repo => !removed.has(repo.id))
+            .map(repo => updated.get(repo.id) ?? repo),
+          ...delta.updated.filter(repo => !present.has(repo.id)),
+          ...delta.added,
+        ];
+      });
+    }
+
+    const changedLanguages = [...delta.added, ...delta.updated]
+      .map(repo => repo.language)
+      .filter((lang): lang is string => !!lang);
+    if (delta.removed.length > 0 || delta.updated.length > 0
+        || changedLanguages.some(lang => !languagesRef.current.includes(lang))) {
+      fetchLanguages();
+    }
+  };
+
   useEffect(() => {
     fetchRepositories();
     fetchStats();
     fetchLanguages();
+
+    // Changes are pushed by the server; EventSource reconnects and resumes on its own
+    if (typeof EventSource === 'undefined') {
+      return;
+    }
+    const stream = new EventSource(`${API_BASE_URL}/repos/stream`);
+    stream.addEventListener('delta', event => {
+      applyDelta(JSON.parse((event as MessageEvent).data));
+    });
+    stream.addEventListener('reset', () => {
+      const { search, language } = filters.current;
+      fetchRepositories(search, language);
+      fetchStats();
+      fetchLanguages();
+    });
+    return () => stream.close();
   }, []);
 
   return {
@@ -11,6 +11,14 @@ export interface Repository {
   updatedAt: string;
   isPrivate: boolean;
   isFork: boolean;
+  source?: string | null;
+  // Enriched details, null until the backend has fetched them
+  topics?: string[] | null;
+  languageBytes?: Record<string, number> | null;
+  openIssuesCount?: number | null;
+  lastCommitSha?: string | null;
+  lastCommitAt?: string | null;
+  enrichedAt?: string | null;
 }
 
 export interface RepositoryStats {
@@ -20,4 +28,13 @@ export interface RepositoryStats {
   forkedRepositories: number;
   totalStars: number;
   totalForks: number;
-}
\ No newline at end of file
+}
+
+export interface RepositoryDelta {
+  version: number;
+  previousVersion: number;
+  added: Repository[];
+  updated: Repository[];
+  removed: number[];
+  stats: RepositoryStats;
+}
@@ -64,6 +64,19 @@ export const RepositoryCard: React.FC<RepositoryCardProps> = ({ repository }) =>
               {repository.description}
             </p>
           )}
+
+          {repository.topics && repository.topics.length > 0 && (
+            <div className="flex flex-wrap gap-1">
+              {repository.topics.slice(0, 5).map((topic) => (
+                <span
+                  key={topic}
+                  className="rounded-full bg-secondary px-2 py-0.5 text-xs text-secondary-foreground"
+                >
+                  {topic}
+                </span>
+              ))}
+            </div>
+          )}
           
           <div className="flex items-center gap-4 text-sm text-muted-foreground">
             {repository.language && (